@@ -10,10 +10,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
 @Configuration
 public class GatewayConfig {
     
@@ -21,6 +24,13 @@ public class GatewayConfig {
     public RouteLocator customRouteLocator(RouteLocatorBuilder builder, 
                                           AuthenticationGatewayFilterFactory authFilter) {
         return builder.routes()
+                // Lista de revogação é só para o próprio gateway (chamada direta ao auth-service):
+                // não é roteada para fora, nem pela rota do discovery locator
+                .route("auth-revocations-blocked", r -> r.order(-1)
+                        .path("/api/auth/revocations", "/auth-service/api/auth/revocations")
+                        .filters(f -> f.setStatus(HttpStatus.NOT_FOUND))
+                        .uri("no://op"))
+                
                 // Auth Service Routes (não requerem autenticação)
                 .route("auth-service", r -> r.path("/api/auth/**")
                         .uri("lb://auth-service"))
@@ -30,6 +40,13 @@ public class GatewayConfig {
                         .filters(f -> f.filter(authFilter.apply(c -> c.setRequiredRole("USER"))))
                         .uri("lb://orders-service"))
                 
+                // Acompanhamento em tempo real (SSE): conexão longa, sem timeout de resposta
+                .route("tracking-stream", r -> r.order(-1)
+                        .path("/api/tracking/order/{orderId}/stream")
+                        .filters(f -> f.filter(authFilter.apply(c -> c.setRequiredRole("USER"))))
+                        .metadata(RESPONSE_TIMEOUT_ATTR, -1)
+                        .uri("lb://tracking-service"))
+                
                 // Tracking Service Routes (requerem autenticação)
                 .route("tracking-service", r -> r.path("/api/tracking/**")
                         .filters(f -> f.filter(authFilter.apply(c -> c.setRequiredRole("USER"))))
@@ -1,5 +1,6 @@
 package com.logistics.gateway.filter;
 
+import com.logistics.gateway.service.TokenValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -8,19 +9,17 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
 
 @Component
 public class AuthenticationGatewayFilterFactory 
         extends AbstractGatewayFilterFactory<AuthenticationGatewayFilterFactory.Config> {
     
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    private TokenValidationService tokenValidationService;
     
     public AuthenticationGatewayFilterFactory() {
         super(Config.class);
@@ -44,10 +43,10 @@ public class AuthenticationGatewayFilterFactory
             
             String token = authHeader.substring(7);
             
-            // Validar token com o serviço de autenticação
-            return validateToken(token)
+            // Validar token (no próprio gateway ou no auth-service, conforme gateway.auth.mode)
+            return tokenValidationService.validate(token)
                     .flatMap(tokenData -> {
-                        if (!(Boolean) tokenData.get("valid")) {
+                        if (!Boolean.TRUE.equals(tokenData.get("valid"))) {
                             return onError(exchange, "Token inválido", HttpStatus.UNAUTHORIZED);
                         }
                         
@@ -72,15 +71,6 @@ public class AuthenticationGatewayFilterFactory
         };
     }
     
-    private Mono<Map> validateToken(String token) {
-        return webClientBuilder.build()
-                .post()
-                .uri("lb://auth-service/api/auth/validate")
-                .bodyValue(Map.of("token", token))
-                .retrieve()
-                .bodyToMono(Map.class);
-    }
-    
     private boolean hasRequiredRole(String userType, String requiredRole) {
         if ("USER".equals(requiredRole)) {
             return List.of("CUSTOMER", "DRIVER", "ADMIN").contains(userType);
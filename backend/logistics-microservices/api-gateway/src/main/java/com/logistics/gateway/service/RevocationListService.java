@@ -0,0 +1,146 @@
+package com.logistics.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cópia em memória dos tokens revogados no auth-service (jti -> exp).
+ * É sincronizada periodicamente por /api/auth/revocations, de forma incremental,
+ * para que a checagem de revogação em cada requisição seja só uma consulta ao mapa.
+ *
+ * Enquanto a lista não sincroniza (antes da primeira consulta bem-sucedida ou com o
+ * auth-service fora), tokens revogados no intervalo ainda são aceitos: a defasagem fica
+ * em gateway.auth.revocation.staleness e em log a cada falha.
+ */
+@Service
+public class RevocationListService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationListService.class);
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE =
+            new ParameterizedTypeReference<>() {};
+    // Reconsulta um pouco antes do último sincronismo para não perder revogações gravadas em transações concorrentes
+    private static final long OVERLAP_MILLIS = 30_000;
+
+    static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+
+    private final WebClient authClient;
+    private final Duration timeout;
+    private final String internalToken;
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile long lastServerTime = 0;
+    // Sem sincronização ainda, a defasagem conta desde a inicialização
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long lastSuccessAt = 0;
+    private volatile boolean failing = false;
+
+    private final Counter failedCounter;
+
+    public RevocationListService(WebClient.Builder webClientBuilder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${gateway.auth.revocation.timeout:3s}") Duration timeout,
+                                 @Value("${gateway.auth.internal-token}") String internalToken) {
+        // clone(): o builder é um bean compartilhado (SwaggerController); baseUrl não pode vazar para ele
+        this.authClient = webClientBuilder.clone().baseUrl("lb://auth-service").build();
+        this.timeout = timeout;
+        this.internalToken = internalToken;
+
+        Gauge.builder("gateway.auth.revocations", revoked, Map::size)
+                .description("Tokens revogados conhecidos pelo gateway")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.revocation.staleness", this, service -> service.stalenessMillis() / 1000.0)
+                .description("Segundos desde a última sincronização bem-sucedida (ou desde a inicialização)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("gateway.auth.revocation.sync.failed")
+                .description("Sincronizações da lista de revogação que falharam")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.auth.revocation.poll-interval:PT10S}")
+    public void sync() {
+        long since = Math.max(0, lastServerTime - OVERLAP_MILLIS);
+        try {
+            Map<String, Object> response = authClient.get()
+                    .uri(uri -> uri.path("/api/auth/revocations").queryParam("since", since).build())
+                    .header(INTERNAL_TOKEN_HEADER, internalToken)
+                    .retrieve()
+                    .bodyToMono(MAP_TYPE)
+                    .block(timeout);
+            if (response == null) {
+                throw new IllegalStateException("resposta vazia");
+            }
+            apply(response);
+            onSynced();
+        } catch (Exception e) {
+            // Mantém a lista atual; a próxima consulta recupera o intervalo perdido
+            onSyncFailed(e);
+        }
+        purgeExpired();
+    }
+
+    long stalenessMillis() {
+        long since = lastSuccessAt > 0 ? lastSuccessAt : startedAt;
+        return System.currentTimeMillis() - since;
+    }
+
+    private void onSynced() {
+        if (lastSuccessAt == 0 || failing) {
+            logger.info("Lista de revogação sincronizada ({} tokens, defasagem anterior {}s)",
+                    revoked.size(), stalenessMillis() / 1000);
+        }
+        lastSuccessAt = System.currentTimeMillis();
+        failing = false;
+    }
+
+    private void onSyncFailed(Exception e) {
+        failedCounter.increment();
+        failing = true;
+        if (lastSuccessAt == 0) {
+            logger.warn("Lista de revogação ainda não sincronizada ({}s desde a inicialização); " +
+                    "tokens revogados são aceitos até a primeira sincronização: {}", stalenessMillis() / 1000, e.getMessage());
+        } else {
+            logger.warn("Falha ao sincronizar lista de revogação, sem atualização há {}s: {}",
+                    stalenessMillis() / 1000, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void apply(Map<String, Object> response) {
+        Object revocations = response.get("revocations");
+        if (revocations instanceof List<?> list) {
+            for (Object item : list) {
+                Map<String, Object> revocation = (Map<String, Object>) item;
+                revoked.put((String) revocation.get("jti"), ((Number) revocation.get("expiresAt")).longValue());
+            }
+        }
+        if (response.get("serverTime") instanceof Number serverTime) {
+            lastServerTime = serverTime.longValue();
+        }
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
@@ -0,0 +1,212 @@
+package com.logistics.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.gateway.util.LruTtlCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Valida o JWT recebido pelo gateway.
+ * <ul>
+ *   <li>{@code local} (padrão): verifica a assinatura no próprio gateway com a chave
+ *       compartilhada (HS256) ou com a chave pública configurada (RS/ES).</li>
+ *   <li>{@code remote}: delega ao endpoint /api/auth/validate do auth-service.</li>
+ * </ul>
+ * Nos dois modos o resultado tem o mesmo formato da resposta de /validate:
+ * {@code valid}, {@code userId}, {@code email} e {@code userType}.
+ * <p>
+ * Tokens válidos ficam em cache (chave = SHA-256 do token) até o menor entre o {@code exp}
+ * do token e o TTL configurado. Requisições simultâneas com o mesmo token compartilham
+ * uma única validação em andamento.
+ * <p>
+ * A revogação é checada a cada requisição, inclusive para resultados em cache, contra a
+ * lista em memória de {@link RevocationListService}.
+ */
+@Service
+public class TokenValidationService {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE =
+            new ParameterizedTypeReference<>() {};
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final RevocationListService revocationListService;
+    private final String mode;
+    private final JwtParser jwtParser;
+    private final WebClient authClient;
+    private final LruTtlCache<String, Map<String, Object>> cache;
+    private final long cacheTtlMillis;
+    private final ConcurrentHashMap<String, Mono<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    public TokenValidationService(WebClient.Builder webClientBuilder,
+                                  MeterRegistry meterRegistry,
+                                  RevocationListService revocationListService,
+                                  @Value("${gateway.auth.mode:local}") String mode,
+                                  @Value("${gateway.auth.jwt.secret:mySecretKey1234567890123456789012345678901234567890}") String secret,
+                                  @Value("${gateway.auth.jwt.public-key:}") String publicKey,
+                                  @Value("${gateway.auth.cache.max-size:10000}") int cacheMaxSize,
+                                  @Value("${gateway.auth.cache.ttl:5m}") Duration cacheTtl) {
+        this.revocationListService = revocationListService;
+        this.mode = mode;
+        // Parser e chave imutáveis, criados uma única vez e compartilhados entre requisições
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(publicKey.isBlank()
+                        ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))
+                        : parsePublicKey(publicKey))
+                .build();
+        // clone(): o builder é um bean compartilhado (SwaggerController); baseUrl não pode vazar para ele
+        this.authClient = webClientBuilder.clone().baseUrl("lb://auth-service").build();
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.cache = new LruTtlCache<>(cacheMaxSize, cacheTtlMillis);
+
+        FunctionCounter.builder("gateway.auth.cache.hits", cache, LruTtlCache::getHits)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.auth.cache.misses", cache, LruTtlCache::getMisses)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.auth.cache.evictions", cache, LruTtlCache::getEvictions)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.auth.cache.expirations", cache, LruTtlCache::getExpirations)
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.cache.size", cache, LruTtlCache::size)
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.inflight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    public Mono<Map<String, Object>> validate(String token) {
+        return lookup(token).map(this::rejectIfRevoked);
+    }
+
+    private Mono<Map<String, Object>> lookup(String token) {
+        String key = sha256(token);
+        Map<String, Object> cached = cache.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        // Uma única validação por token em andamento; as demais requisições assinam o mesmo Mono
+        return inFlight.computeIfAbsent(key, k -> doValidate(token)
+                .doOnNext(result -> store(k, token, result))
+                .doFinally(signal -> inFlight.remove(k))
+                .cache());
+    }
+
+    private Map<String, Object> rejectIfRevoked(Map<String, Object> result) {
+        if (Boolean.TRUE.equals(result.get("valid"))
+                && revocationListService.isRevoked((String) result.get("jti"))) {
+            Map<String, Object> revoked = new HashMap<>();
+            revoked.put("valid", false);
+            return revoked;
+        }
+        return result;
+    }
+
+    private Mono<Map<String, Object>> doValidate(String token) {
+        if ("remote".equals(mode)) {
+            return validateRemote(token);
+        }
+        return Mono.fromCallable(() -> validateLocal(token));
+    }
+
+    // Só guarda tokens válidos: tokens inválidos arbitrários não podem encher o cache
+    private void store(String key, String token, Map<String, Object> result) {
+        if (!Boolean.TRUE.equals(result.get("valid"))) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + cacheTtlMillis;
+        Long exp = readExpiration(token);
+        if (exp != null) {
+            expiresAt = Math.min(expiresAt, exp * 1000);
+        }
+        cache.put(key, result, expiresAt);
+    }
+
+    // Lê o claim exp sem verificar a assinatura: só é usado depois que o token já foi validado
+    private static Long readExpiration(String token) {
+        try {
+            String[] parts = token.split("\\.");
+            JsonNode payload = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            return payload.hasNonNull("exp") ? payload.get("exp").asLong() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Map<String, Object> validateLocal(String token) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            // Refresh tokens não servem para acessar as APIs (os antigos não têm "type", mas também não têm userId)
+            if (claims.get("userId") == null || "refresh".equals(claims.get("type"))) {
+                result.put("valid", false);
+                return result;
+            }
+            result.put("valid", true);
+            result.put("userId", claims.get("userId"));
+            result.put("email", claims.get("email"));
+            result.put("userType", claims.get("userType"));
+            result.put("jti", claims.getId());
+        } catch (JwtException | IllegalArgumentException e) {
+            result.put("valid", false);
+        }
+        return result;
+    }
+
+    // /validate recebe o token como @RequestParam: enviado como formulário para não aparecer na URL
+    private Mono<Map<String, Object>> validateRemote(String token) {
+        return authClient.post()
+                .uri("/api/auth/validate")
+                .body(BodyInserters.fromFormData("token", token))
+                .retrieve()
+                .bodyToMono(MAP_TYPE);
+    }
+
+    // Chave pública X.509 em Base64 (com ou sem cabeçalhos PEM); algoritmo RSA ou EC
+    private static PublicKey parsePublicKey(String encoded) {
+        String base64 = encoded
+                .replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(Base64.getDecoder().decode(base64));
+        for (String algorithm : new String[]{"RSA", "EC"}) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(spec);
+            } catch (Exception ignored) {
+                // tenta o próximo algoritmo
+            }
+        }
+        throw new IllegalStateException("Chave pública JWT inválida (esperado RSA ou EC em X.509)");
+    }
+}
@@ -0,0 +1,86 @@
+package com.logistics.gateway.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache em memória limitado por tamanho (LRU) e com expiração por entrada.
+ * Mantém contadores de acertos, falhas e remoções para dimensionamento.
+ */
+public class LruTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long defaultTtlMillis;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public LruTtlCache(int maxSize, long defaultTtlMillis) {
+        this.maxSize = maxSize;
+        this.defaultTtlMillis = defaultTtlMillis;
+        // accessOrder = true: a iteração começa pela entrada menos usada recentemente
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + defaultTtlMillis);
+    }
+
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        entries.put(key, new CacheEntry<>(value, expiresAtMillis));
+        if (entries.size() > maxSize) {
+            evictEldest();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictEldest() {
+        // Remove a menos usada recentemente; se já estava vencida, conta como expiração
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<K, CacheEntry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext() && entries.size() > maxSize) {
+            Map.Entry<K, CacheEntry<V>> eldest = it.next();
+            it.remove();
+            if (eldest.getValue().expiresAt <= now) {
+                expirations.increment();
+            } else {
+                evictions.increment();
+            }
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getExpirations() { return expirations.sum(); }
+
+    private record CacheEntry<V>(V value, long expiresAt) {}
+}
@@ -8,7 +8,8 @@ import org.springframework.web.client.RestTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "INTERNAL_API_TOKEN=test-internal-token")
 public class ApiGatewayIntegrationTest {
 
     @LocalServerPort
@@ -0,0 +1,28 @@
+package com.logistics.gateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RevocationListServiceTest {
+
+    @Test
+    public void testFailedSyncIsCountedAndStalenessKeepsGrowing() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Sem load balancer, lb://auth-service não resolve: toda sincronização falha
+        RevocationListService service =
+                new RevocationListService(WebClient.builder(), meterRegistry, Duration.ofSeconds(1), "interno");
+        Thread.sleep(20);
+
+        service.sync();
+
+        assertThat(meterRegistry.get("gateway.auth.revocation.sync.failed").counter().count()).isEqualTo(1);
+        // Nunca sincronizou: a defasagem conta desde a inicialização
+        assertThat(service.stalenessMillis()).isGreaterThanOrEqualTo(20);
+        assertThat(meterRegistry.get("gateway.auth.revocation.staleness").gauge().value()).isGreaterThan(0);
+    }
+}
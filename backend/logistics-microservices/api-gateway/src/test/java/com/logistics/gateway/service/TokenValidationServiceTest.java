@@ -0,0 +1,126 @@
+package com.logistics.gateway.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenValidationServiceTest {
+
+    private static final String SECRET = "mySecretKey1234567890123456789012345678901234567890";
+
+    private final RevocationListService revocationListService =
+            new RevocationListService(WebClient.builder(), new SimpleMeterRegistry(), Duration.ofSeconds(1), "interno");
+
+    private final TokenValidationService service =
+            new TokenValidationService(WebClient.builder(), new SimpleMeterRegistry(), revocationListService,
+                    "local", SECRET, "", 100, Duration.ofMinutes(5));
+
+    @Test
+    public void testValidTokenReturnsClaims() {
+        String token = Jwts.builder()
+                .claim("userId", 42)
+                .claim("email", "motorista@teste.com")
+                .claim("userType", "DRIVER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        Map<String, Object> result = service.validate(token).block();
+
+        assertThat(result).containsEntry("valid", true)
+                .containsEntry("userId", 42)
+                .containsEntry("email", "motorista@teste.com")
+                .containsEntry("userType", "DRIVER");
+    }
+
+    @Test
+    public void testRepeatedValidationIsServedFromCache() {
+        String token = Jwts.builder()
+                .claim("userId", 42)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        Map<String, Object> first = service.validate(token).block();
+        Map<String, Object> second = service.validate(token).block();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void testTokenSignedWithOtherKeyIsInvalid() {
+        String token = Jwts.builder()
+                .claim("userId", 42)
+                .signWith(Keys.hmacShaKeyFor("outraChave1234567890123456789012345678901234567890".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(service.validate(token).block()).containsEntry("valid", false);
+    }
+
+    @Test
+    public void testExpiredTokenIsInvalid() {
+        String token = Jwts.builder()
+                .claim("userId", 42)
+                .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(service.validate(token).block()).containsEntry("valid", false);
+    }
+
+    @Test
+    public void testRefreshTokenWithoutUserIdIsInvalid() {
+        String token = Jwts.builder()
+                .setSubject("motorista@teste.com")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(service.validate(token).block()).containsEntry("valid", false);
+    }
+
+    @Test
+    public void testRefreshTokenWithTypeClaimIsInvalid() {
+        String token = Jwts.builder()
+                .claim("userId", 42)
+                .claim("type", "refresh")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(service.validate(token).block()).containsEntry("valid", false);
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedEvenWhenCached() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        String token = Jwts.builder()
+                .setId("jti-revogado")
+                .claim("userId", 42)
+                .setExpiration(new Date(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        assertThat(service.validate(token).block()).containsEntry("valid", true);
+
+        revocationListService.apply(Map.of(
+                "serverTime", System.currentTimeMillis(),
+                "revocations", List.of(Map.of("jti", "jti-revogado", "expiresAt", expiresAt))));
+
+        assertThat(service.validate(token).block()).containsEntry("valid", false);
+    }
+
+    @Test
+    public void testGarbageIsInvalid() {
+        assertThat(service.validate("nao.e.jwt").block()).containsEntry("valid", false);
+    }
+}
@@ -2,9 +2,12 @@ package com.logistics.auth.controller;
 
 import com.logistics.auth.dto.AuthResponse;
 import com.logistics.auth.dto.LoginRequest;
+import com.logistics.auth.dto.RefreshRequest;
 import com.logistics.auth.dto.RegisterRequest;
+import com.logistics.auth.dto.RevocationListResponse;
 import com.logistics.auth.service.AuthService;
 import com.logistics.auth.service.JwtService;
+import com.logistics.auth.service.TokenRevocationService;
 import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,13 +18,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -34,6 +43,13 @@ public class AuthController {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    // Segredo compartilhado com o api-gateway para endpoints internos
+    @Value("${auth.internal.token}")
+    private String internalToken;
+    
     @Operation(
         summary = "Registrar novo usuário",
         description = "Registra um novo usuário no sistema e retorna o token de autenticação"
@@ -212,14 +228,77 @@ public class AuthController {
         @RequestParam String token
     ) {
         Map<String, Object> response = new HashMap<>();
-        boolean isValid = authService.validateToken(token);
-        response.put("valid", isValid);
-        if (isValid) {
-            Claims claims = jwtService.getClaimsFromToken(token);
-            response.put("userId", claims.get("userId"));
-            response.put("email", claims.get("email"));
-            response.put("userType", claims.get("userType"));
-        }
+        // Uma única verificação HMAC: valida e já devolve os claims
+        // Refresh tokens e tokens revogados não dão acesso às APIs
+        Optional<Claims> claims = jwtService.parseValidClaims(token)
+                .filter(c -> !JwtService.isRefreshToken(c))
+                .filter(c -> !tokenRevocationService.isRevoked(c));
+        response.put("valid", claims.isPresent());
+        claims.ifPresent(c -> {
+            response.put("userId", c.get("userId"));
+            response.put("email", c.get("email"));
+            response.put("userType", c.get("userType"));
+            response.put("jti", c.getId());
+        });
         return ResponseEntity.ok(response);
     }
+    
+    @Operation(
+        summary = "Renovar tokens",
+        description = "Troca um refresh token válido por um novo token de acesso e um novo refresh token. " +
+                      "O refresh token enviado é revogado e não pode ser reutilizado."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Tokens renovados com sucesso",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = AuthResponse.class)
+            )
+        ),
+        @ApiResponse(responseCode = "401", description = "Refresh token inválido, expirado ou já utilizado")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+    
+    @Operation(
+        summary = "Encerrar sessão",
+        description = "Revoga o token de acesso e, opcionalmente, o refresh token da sessão"
+    )
+    @ApiResponse(responseCode = "204", description = "Tokens revogados")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+        @Parameter(description = "Token de acesso a revogar", required = true)
+        @RequestParam String token,
+        @Parameter(description = "Refresh token a revogar")
+        @RequestParam(required = false) String refreshToken
+    ) {
+        authService.logout(token, refreshToken);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @Operation(
+        summary = "Listar revogações",
+        description = "Tokens revogados desde o instante informado (epoch ms) e ainda não expirados. " +
+                      "Uso interno do api-gateway, que mantém a lista de revogação em memória; exige X-Internal-Token."
+    )
+    @ApiResponse(responseCode = "403", description = "Chamada sem o token interno")
+    @GetMapping("/revocations")
+    public ResponseEntity<RevocationListResponse> revocations(
+        @Parameter(description = "serverTime devolvido na consulta anterior (epoch ms)")
+        @RequestParam(defaultValue = "0") long since,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "X-Internal-Token", required = false) String token
+    ) {
+        if (token == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), internalToken.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long serverTime = System.currentTimeMillis();
+        return ResponseEntity.ok(new RevocationListResponse(
+                serverTime, tokenRevocationService.revokedSince(Instant.ofEpochMilli(since))));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.logistics.auth.dto;
+
+import com.logistics.auth.model.RevokedToken;
+
+import java.util.List;
+
+/**
+ * Revogações desde o último sincronismo. {@code serverTime} (epoch ms) é o valor que o
+ * cliente deve enviar como {@code since} na próxima consulta.
+ */
+public class RevocationListResponse {
+    private long serverTime;
+    private List<Revocation> revocations;
+    
+    public RevocationListResponse(long serverTime, List<RevokedToken> revokedTokens) {
+        this.serverTime = serverTime;
+        this.revocations = revokedTokens.stream()
+                .map(token -> new Revocation(token.getJti(), token.getExpiresAt().toEpochMilli()))
+                .toList();
+    }
+    
+    // Getters and Setters
+    public long getServerTime() { return serverTime; }
+    public void setServerTime(long serverTime) { this.serverTime = serverTime; }
+    
+    public List<Revocation> getRevocations() { return revocations; }
+    public void setRevocations(List<Revocation> revocations) { this.revocations = revocations; }
+    
+    public static class Revocation {
+        private String jti;
+        private long expiresAt;
+        
+        public Revocation(String jti, long expiresAt) {
+            this.jti = jti;
+            this.expiresAt = expiresAt;
+        }
+        
+        public String getJti() { return jti; }
+        public void setJti(String jti) { this.jti = jti; }
+        
+        public long getExpiresAt() { return expiresAt; }
+        public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+    }
+}
@@ -137,6 +137,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    // 503 - Service Unavailable (fila de hashing de senhas cheia)
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingUnavailable(
+            PasswordHashingUnavailableException ex, HttpServletRequest request) {
+        
+        logException(ex, request, HttpStatus.SERVICE_UNAVAILABLE);
+        
+        Map<String, Object> response = buildErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE, 
+            "Serviço sobrecarregado, tente novamente em instantes", 
+            ex.getMessage(), 
+            request.getRequestURI()
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(response);
+    }
+
     // 500 - Internal Server Error (RuntimeException específicas)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(
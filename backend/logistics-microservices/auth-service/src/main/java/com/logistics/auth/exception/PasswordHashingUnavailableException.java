@@ -0,0 +1,11 @@
+package com.logistics.auth.exception;
+
+/**
+ * A fila de hashing de senhas está cheia ou a espera passou do limite.
+ * Respondida com 503 para o cliente tentar de novo em seguida.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
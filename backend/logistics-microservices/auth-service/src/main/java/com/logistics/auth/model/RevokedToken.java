@@ -0,0 +1,33 @@
+package com.logistics.auth.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Token revogado antes de expirar (logout ou refresh token já rotacionado).
+ * A linha só precisa existir até {@code expiresAt}: depois disso o próprio exp rejeita o token.
+ * Instantes em UTC porque o gateway sincroniza a lista comparando com o relógio do auth-service.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"))
+public class RevokedToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+    
+    private Instant expiresAt;
+    private Instant revokedAt;
+    
+    // Constructors
+    public RevokedToken() {}
+    
+    // Getters and Setters
+    public String getJti() { return jti; }
+    public void setJti(String jti) { this.jti = jti; }
+    
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    
+    public Instant getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(Instant revokedAt) { this.revokedAt = revokedAt; }
+}
@@ -0,0 +1,30 @@
+package com.logistics.auth.repository;
+
+import com.logistics.auth.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    
+    // Retorna 0 se o jti já estava revogado: garante que um refresh token seja rotacionado uma única vez
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) " +
+                   "VALUES (:jti, :expiresAt, :revokedAt) ON CONFLICT (jti) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti,
+                       @Param("expiresAt") Instant expiresAt,
+                       @Param("revokedAt") Instant revokedAt);
+    
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(Instant revokedAfter, Instant expiresAfter);
+    
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -3,10 +3,12 @@ package com.logistics.auth.service;
 import com.logistics.auth.dto.AuthResponse;
 import com.logistics.auth.dto.LoginRequest;
 import com.logistics.auth.dto.RegisterRequest;
+import com.logistics.auth.exception.PasswordHashingUnavailableException;
 import com.logistics.auth.model.User;
 import com.logistics.auth.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -19,11 +21,14 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     @CircuitBreaker(name = "default", fallbackMethod = "registerFallback")
     @Retry(name = "default")
     public AuthResponse register(RegisterRequest request) {
@@ -33,7 +38,7 @@ public class AuthService {
         
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setUserType(request.getUserType());
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
@@ -46,18 +51,29 @@ public class AuthService {
         
         return new AuthResponse(token, refreshToken, user);
     }
+    public AuthResponse registerFallback(RegisterRequest request, PasswordHashingUnavailableException e) {
+        throw e;
+    }
     public AuthResponse registerFallback(RegisterRequest request, Throwable t) {
         throw new RuntimeException("Serviço temporariamente indisponível. Tente novamente mais tarde.");
     }
     
+    // Credenciais erradas e fila de hashing cheia não são falhas do serviço:
+    // ficam fora do retry e do circuit breaker (ignoreExceptions no application.yml)
     @CircuitBreaker(name = "default", fallbackMethod = "loginFallback")
     @Retry(name = "default")
     public AuthResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+                .orElseThrow(() -> new BadCredentialsException("Usuário ou senha inválidos"));
+        
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Usuário ou senha inválidos");
+        }
         
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Senha inválida");
+        // Hash gravado com custo antigo: aproveita a senha em claro para regravar com o custo atual
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            user = userRepository.save(user);
         }
         
         String token = jwtService.generateToken(user);
@@ -65,10 +81,49 @@ public class AuthService {
         
         return new AuthResponse(token, refreshToken, user);
     }
+    public AuthResponse loginFallback(LoginRequest request, BadCredentialsException e) {
+        throw e;
+    }
+    public AuthResponse loginFallback(LoginRequest request, PasswordHashingUnavailableException e) {
+        throw e;
+    }
     public AuthResponse loginFallback(LoginRequest request, Throwable t) {
         throw new RuntimeException("Serviço temporariamente indisponível. Tente novamente mais tarde.");
     }
     
+    /**
+     * Troca um refresh token por um novo par de tokens (rotação): o refresh token usado
+     * é revogado, então cada um só pode ser trocado uma vez.
+     * Sem @Retry: uma segunda tentativa encontraria o token já revogado pela primeira.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims = jwtService.parseValidClaims(refreshToken)
+                .filter(JwtService::isRefreshToken)
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido"));
+        
+        if (!tokenRevocationService.revoke(claims)) {
+            throw new BadCredentialsException("Refresh token já utilizado ou revogado");
+        }
+        
+        User user = userRepository.findByEmail(claims.getSubject())
+                .orElseThrow(() -> new BadCredentialsException("Usuário não encontrado"));
+        
+        String token = jwtService.generateToken(user);
+        String newRefreshToken = jwtService.generateRefreshToken(user);
+        
+        return new AuthResponse(token, newRefreshToken, user);
+    }
+    
+    /** Revoga o token de acesso e, se informado, o refresh token da mesma sessão. */
+    public void logout(String token, String refreshToken) {
+        jwtService.parseValidClaims(token).ifPresent(tokenRevocationService::revoke);
+        if (refreshToken != null) {
+            jwtService.parseValidClaims(refreshToken)
+                    .filter(JwtService::isRefreshToken)
+                    .ifPresent(tokenRevocationService::revoke);
+        }
+    }
+    
     public boolean validateToken(String token) {
         return jwtService.validateToken(token);
     }
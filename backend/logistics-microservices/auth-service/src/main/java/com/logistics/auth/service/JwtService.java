@@ -7,24 +7,37 @@ import org.springframework.stereotype.Service;
 import com.logistics.auth.model.User;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class JwtService {
     
-    @Value("${jwt.secret:mySecretKey1234567890123456789012345678901234567890}")
-    private String secretKey;
+    // Claim "type" distingue o token de acesso do refresh token; "jti" identifica o token para revogação
+    public static final String TYPE_CLAIM = "type";
+    public static final String ACCESS_TYPE = "access";
+    public static final String REFRESH_TYPE = "refresh";
     
-    @Value("${jwt.expiration:86400000}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final long refreshExpiration;
     
-    @Value("${jwt.refresh-expiration:604800000}")
-    private long refreshExpiration;
+    // Chave e parser imutáveis, criados uma vez na inicialização e compartilhados entre threads
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    public JwtService(@Value("${jwt.secret:mySecretKey1234567890123456789012345678901234567890}") String secretKey,
+                      @Value("${jwt.expiration:86400000}") long jwtExpiration,
+                      @Value("${jwt.refresh-expiration:604800000}") long refreshExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
     
     public String generateToken(User user) {
@@ -32,43 +45,52 @@ public class JwtService {
         claims.put("userId", user.getId());
         claims.put("email", user.getEmail());
         claims.put("userType", user.getUserType());
+        claims.put(TYPE_CLAIM, ACCESS_TYPE);
         
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
     public String generateRefreshToken(User user) {
         return Jwts.builder()
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getEmail())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
-    public boolean validateToken(String token) {
+    /**
+     * Verifica assinatura e expiração uma única vez e devolve os claims.
+     * Vazio quando o token é inválido.
+     */
+    public Optional<Claims> parseValidClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(token).getBody());
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
     
+    /** Refresh tokens não dão acesso às APIs; tokens antigos sem o claim "type" são de acesso. */
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM));
+    }
+    
+    public boolean validateToken(String token) {
+        return parseValidClaims(token).isPresent();
+    }
+    
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
     
     public String getEmailFromToken(String token) {
@@ -0,0 +1,59 @@
+package com.logistics.auth.service;
+
+import com.logistics.auth.model.RevokedToken;
+import com.logistics.auth.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lista de tokens revogados (por jti). O auth-service consulta o banco nos fluxos raros
+ * (refresh, logout, /validate); o api-gateway mantém uma cópia em memória sincronizada por
+ * /api/auth/revocations e não faz nenhuma chamada por requisição.
+ */
+@Service
+public class TokenRevocationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    /**
+     * Revoga o token; retorna false se ele já estava revogado.
+     * Tokens sem jti (emitidos antes da revogação existir) não podem ser revogados.
+     */
+    @Transactional
+    public boolean revoke(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        return revokedTokenRepository.insertIfAbsent(
+                claims.getId(), claims.getExpiration().toInstant(), Instant.now()) > 0;
+    }
+    
+    public boolean isRevoked(Claims claims) {
+        return claims.getId() != null && revokedTokenRepository.existsById(claims.getId());
+    }
+    
+    /** Revogações registradas depois de {@code since} e que ainda não expiraram. */
+    public List<RevokedToken> revokedSince(Instant since) {
+        return revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, Instant.now());
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = revokedTokenRepository.deleteExpired(Instant.now());
+        if (removed > 0) {
+            logger.info("{} tokens revogados expirados removidos", removed);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.logistics.auth;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "INTERNAL_API_TOKEN=test-internal-token")
 class AuthServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,58 @@
+package com.logistics.auth.service;
+
+import com.logistics.auth.model.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "mySecretKey1234567890123456789012345678901234567890";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 120_000);
+
+    @Test
+    public void testParseValidClaimsReturnsUserClaims() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("cliente@teste.com");
+        user.setUserType(User.UserType.CUSTOMER);
+
+        Optional<Claims> claims = jwtService.parseValidClaims(jwtService.generateToken(user));
+
+        assertTrue(claims.isPresent());
+        assertEquals("cliente@teste.com", claims.get().get("email"));
+        assertEquals("CUSTOMER", claims.get().get("userType"));
+        assertEquals(7, ((Number) claims.get().get("userId")).intValue());
+    }
+
+    @Test
+    public void testParseValidClaimsRejectsTokenFromOtherKey() {
+        JwtService other = new JwtService("outraChave1234567890123456789012345678901234567890", 60_000, 120_000);
+        User user = new User();
+        user.setEmail("cliente@teste.com");
+
+        assertTrue(other.parseValidClaims(jwtService.generateRefreshToken(user)).isEmpty());
+        assertFalse(jwtService.validateToken("invalid"));
+    }
+
+    @Test
+    public void testAccessAndRefreshTokensCarryTypeAndUniqueJti() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("cliente@teste.com");
+
+        Claims access = jwtService.parseValidClaims(jwtService.generateToken(user)).orElseThrow();
+        Claims refresh = jwtService.parseValidClaims(jwtService.generateRefreshToken(user)).orElseThrow();
+
+        assertFalse(JwtService.isRefreshToken(access));
+        assertTrue(JwtService.isRefreshToken(refresh));
+        assertNotNull(access.getId());
+        assertNotNull(refresh.getId());
+        assertNotEquals(access.getId(), refresh.getId());
+        assertEquals("cliente@teste.com", refresh.getSubject());
+    }
+}
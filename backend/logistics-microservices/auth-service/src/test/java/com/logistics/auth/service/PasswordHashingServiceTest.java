@@ -0,0 +1,108 @@
+package com.logistics.auth.service;
+
+import com.logistics.auth.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    public void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testEncodeAndMatches() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        String hash = service.encode("senha123");
+
+        assertTrue(service.matches("senha123", hash));
+        assertFalse(service.matches("outra", hash));
+        assertEquals(3, meterRegistry.get("auth.password.hash.time").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    public void testNeedsRehashWhenStrengthIncreased() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("senha123");
+        service = new PasswordHashingService(new BCryptPasswordEncoder(6), meterRegistry, 1, 4, Duration.ofSeconds(5));
+
+        assertTrue(service.needsRehash(weakHash));
+        assertFalse(service.needsRehash(service.encode("senha123")));
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        service = new PasswordHashingService(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("a", "x"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> service.matches("b", "x"));
+        waitForQueueDepth(1);
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> service.matches("c", "x"));
+        assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejectsWhenWaitExceedsLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        service = new PasswordHashingService(slowEncoder, meterRegistry, 1, 4, Duration.ofMillis(50));
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> service.matches("a", "x"));
+        release.countDown();
+    }
+
+    private void waitForQueueDepth(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.logistics.benchmarks;
+
+import com.logistics.auth.controller.AuthController;
+import com.logistics.auth.service.JwtService;
+import com.logistics.auth.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * /api/auth/validate de ponta a ponta, sem rede: DispatcherServlet, binding do parâmetro,
+ * validação do token e serialização JSON da resposta.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthControllerBenchmark {
+
+    private MockMvc mockMvc;
+    private String validToken;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService(BenchmarkFixtures.SECRET, 86_400_000, 604_800_000);
+        validToken = jwtService.generateToken(BenchmarkFixtures.user());
+
+        AuthController controller = new AuthController();
+        ReflectionTestUtils.setField(controller, "jwtService", jwtService);
+        // Sem banco: nenhum token revogado, mede só o caminho de validação
+        ReflectionTestUtils.setField(controller, "tokenRevocationService", new TokenRevocationService() {
+            @Override
+            public boolean isRevoked(Claims claims) {
+                return false;
+            }
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Benchmark
+    public byte[] validateValidToken() throws Exception {
+        return mockMvc.perform(post("/api/auth/validate").param("token", validToken))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] validateInvalidToken() throws Exception {
+        return mockMvc.perform(post("/api/auth/validate").param("token", "invalid"))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,18 @@
+package com.logistics.benchmarks;
+
+import com.logistics.auth.model.User;
+
+final class BenchmarkFixtures {
+
+    static final String SECRET = "mySecretKey1234567890123456789012345678901234567890";
+
+    private BenchmarkFixtures() {}
+
+    static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("motorista@logistics.com");
+        user.setUserType(User.UserType.DRIVER);
+        return user;
+    }
+}
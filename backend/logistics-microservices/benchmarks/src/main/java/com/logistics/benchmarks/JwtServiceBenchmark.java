@@ -0,0 +1,53 @@
+package com.logistics.benchmarks;
+
+import com.logistics.auth.model.User;
+import com.logistics.auth.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por chamada das operações de JwtService usadas em login e validação.
+ * Rodar com {@code -prof gc} para ver a alocação por operação.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(BenchmarkFixtures.SECRET, 86_400_000, 604_800_000);
+        user = BenchmarkFixtures.user();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims getClaimsFromToken() {
+        return jwtService.getClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseValidClaims() {
+        return jwtService.parseValidClaims(token);
+    }
+}
@@ -0,0 +1,74 @@
+package com.logistics.orders.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Mesmo mapeamento do Jackson2JsonMessageConverter (inclusive o cabeçalho __TypeId__ e o tipo
+ * inferido do parâmetro do listener), mas com o corpo em CBOR: binário, sem aspas, números
+ * em binário e strings com prefixo de tamanho em vez de escapadas.
+ *
+ * Não estende AbstractJackson2MessageConverter: ele converte o corpo em String antes do
+ * parse, o que só funciona com formatos texto.
+ */
+public class Jackson2CborMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    private final ObjectMapper objectMapper;
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    // Como no Jackson2JsonMessageConverter, sem argumentos confia em todos os pacotes
+    public Jackson2CborMessageConverter() {
+        this("*");
+    }
+
+    public Jackson2CborMessageConverter(String... trustedPackages) {
+        // Mesmas configurações do mapper do Jackson2JsonMessageConverter: java.time e campos desconhecidos ignorados
+        this.objectMapper = CBORMapper.builder()
+                .findAndAddModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        this.typeMapper.setTrustedPackages(trustedPackages);
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Falha ao converter o objeto para CBOR", e);
+        }
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        // Sem tipo no cabeçalho nem no listener, devolve os bytes como o conversor JSON
+        if (properties.getInferredArgumentType() == null
+                && properties.getHeader(typeMapper.getClassIdFieldName()) == null) {
+            return message.getBody();
+        }
+        JavaType targetType = typeMapper.toJavaType(properties);
+        try {
+            // Parse direto dos bytes: o CBORFactory não aceita String
+            return objectMapper.readValue(message.getBody(), targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Falha ao converter a mensagem CBOR", e);
+        }
+    }
+}
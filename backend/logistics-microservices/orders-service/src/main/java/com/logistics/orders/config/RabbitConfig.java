@@ -3,7 +3,9 @@ package com.logistics.orders.config;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -25,6 +27,11 @@ public class RabbitConfig {
         return QueueBuilder.durable("order.status.updated.queue").build();
     }
     
+    @Bean
+    public Queue orderRouteCalculatedQueue() {
+        return QueueBuilder.durable("order.route.calculated.queue").build();
+    }
+    
     @Bean
     public Binding orderCreatedBinding() {
         return BindingBuilder
@@ -42,8 +49,21 @@ public class RabbitConfig {
     }
     
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public Binding orderRouteCalculatedBinding() {
+        return BindingBuilder
+                .bind(orderRouteCalculatedQueue())
+                .to(orderExchange())
+                .with("order.route.calculated");
+    }
+    
+    // Codec escolhido pelo content-type: na leitura, o da mensagem; na escrita, events.content-type
+    @Bean
+    public MessageConverter messageConverter() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(json);
+        converter.addDelegate("application/json", json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE, new Jackson2CborMessageConverter());
+        return converter;
     }
     
     @Bean
@@ -4,10 +4,12 @@ import com.logistics.orders.dto.CreateOrderRequest;
 import com.logistics.orders.model.Order;
 import com.logistics.orders.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.util.List;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,21 +27,36 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Value("${orders.create.async:false}")
+    private boolean asyncByDefault;
+    
     @PostMapping
     @Operation(
         summary = "Criar novo pedido",
-        description = "Cria um novo pedido no sistema de logística com as informações fornecidas"
+        description = "Cria um novo pedido no sistema de logística com as informações fornecidas. " +
+                      "Com async=true o pedido é gravado sem rota e devolvido com 202; distância e tempo " +
+                      "estimado são preenchidos em segundo plano (consulte GET /api/orders/{id} ou o evento order.route.calculated)"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pedido criado com sucesso",
                     content = @Content(schema = @Schema(implementation = Order.class))),
+        @ApiResponse(responseCode = "202", description = "Pedido criado; rota em cálculo",
+                    content = @Content(schema = @Schema(implementation = Order.class))),
         @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos",
                     content = @Content)
     })
     public ResponseEntity<Order> createOrder(
             @Parameter(description = "Dados do pedido a ser criado", required = true)
-            @Valid @RequestBody CreateOrderRequest request) {
+            @Valid @RequestBody CreateOrderRequest request,
+            @Parameter(description = "Calcular a rota em segundo plano (padrão: orders.create.async)")
+            @RequestParam(required = false) Boolean async) {
         try {
+            if (async != null ? async : asyncByDefault) {
+                Order order = orderService.createOrderAsync(request);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/" + order.getId()))
+                        .body(order);
+            }
             Order order = orderService.createOrder(request);
             return ResponseEntity.ok(order);
         } catch (Exception e) {
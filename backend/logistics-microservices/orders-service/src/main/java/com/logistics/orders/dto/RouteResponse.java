@@ -4,6 +4,11 @@ public class RouteResponse {
     private Double distance;
     private Integer duration; // em minutos
     private String geometry;
+    // Coordenadas geocodificadas; nulas quando o endereço não pôde ser resolvido
+    private Double originLatitude;
+    private Double originLongitude;
+    private Double destinationLatitude;
+    private Double destinationLongitude;
     
     public RouteResponse() {}
     
@@ -22,4 +27,16 @@ public class RouteResponse {
     
     public String getGeometry() { return geometry; }
     public void setGeometry(String geometry) { this.geometry = geometry; }
+    
+    public Double getOriginLatitude() { return originLatitude; }
+    public void setOriginLatitude(Double originLatitude) { this.originLatitude = originLatitude; }
+    
+    public Double getOriginLongitude() { return originLongitude; }
+    public void setOriginLongitude(Double originLongitude) { this.originLongitude = originLongitude; }
+    
+    public Double getDestinationLatitude() { return destinationLatitude; }
+    public void setDestinationLatitude(Double destinationLatitude) { this.destinationLatitude = destinationLatitude; }
+    
+    public Double getDestinationLongitude() { return destinationLongitude; }
+    public void setDestinationLongitude(Double destinationLongitude) { this.destinationLongitude = destinationLongitude; }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.logistics.orders.event;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+final class EventTimestamps {
+
+    private EventTimestamps() {}
+
+    // Epoch em milissegundos: 8 bytes em CBOR, contra ~26 caracteres de uma data ISO
+    static Long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+}
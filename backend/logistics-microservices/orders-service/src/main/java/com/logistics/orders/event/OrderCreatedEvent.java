@@ -0,0 +1,34 @@
+package com.logistics.orders.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logistics.orders.model.Order;
+
+/**
+ * Payload de order.created: dados de roteamento do pedido,
+ * sem descrição, preço nem os demais campos da entidade.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderCreatedEvent(
+        int version,
+        Long orderId,
+        Long customerId,
+        String originAddress,
+        Double originLatitude,
+        Double originLongitude,
+        String destinationAddress,
+        Double destinationLatitude,
+        Double destinationLongitude,
+        Double distance,
+        Integer estimatedTime,
+        Long createdAt) {
+
+    public static final int VERSION = 1;
+
+    public static OrderCreatedEvent from(Order order) {
+        return new OrderCreatedEvent(VERSION, order.getId(), order.getCustomerId(),
+                order.getOriginAddress(), order.getOriginLatitude(), order.getOriginLongitude(),
+                order.getDestinationAddress(), order.getDestinationLatitude(), order.getDestinationLongitude(),
+                order.getDistance(), order.getEstimatedTime(),
+                EventTimestamps.toEpochMillis(order.getCreatedAt()));
+    }
+}
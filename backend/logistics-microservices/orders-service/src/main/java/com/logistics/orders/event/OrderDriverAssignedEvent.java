@@ -0,0 +1,28 @@
+package com.logistics.orders.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logistics.orders.model.Order;
+
+/** Payload de order.driver.assigned: o suficiente para o tracking-service abrir o rastreamento. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderDriverAssignedEvent(
+        int version,
+        Long orderId,
+        Long driverId,
+        String originAddress,
+        Double originLatitude,
+        Double originLongitude,
+        String destinationAddress,
+        Double destinationLatitude,
+        Double destinationLongitude,
+        Long assignedAt) {
+
+    public static final int VERSION = 1;
+
+    public static OrderDriverAssignedEvent from(Order order) {
+        return new OrderDriverAssignedEvent(VERSION, order.getId(), order.getDriverId(),
+                order.getOriginAddress(), order.getOriginLatitude(), order.getOriginLongitude(),
+                order.getDestinationAddress(), order.getDestinationLatitude(), order.getDestinationLongitude(),
+                EventTimestamps.toEpochMillis(order.getUpdatedAt()));
+    }
+}
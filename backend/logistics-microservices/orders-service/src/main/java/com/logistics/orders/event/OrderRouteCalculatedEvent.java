@@ -0,0 +1,32 @@
+package com.logistics.orders.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logistics.orders.model.Order;
+
+/**
+ * Payload de order.route.calculated: a rota gravada em segundo plano (modo assíncrono).
+ * O motorista vai junto porque a atribuição pode ter sido publicada antes da rota.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderRouteCalculatedEvent(
+        int version,
+        Long orderId,
+        Long driverId,
+        Double originLatitude,
+        Double originLongitude,
+        Double destinationLatitude,
+        Double destinationLongitude,
+        Double distance,
+        Integer estimatedTime,
+        Long calculatedAt) {
+
+    public static final int VERSION = 1;
+
+    public static OrderRouteCalculatedEvent from(Order order) {
+        return new OrderRouteCalculatedEvent(VERSION, order.getId(), order.getDriverId(),
+                order.getOriginLatitude(), order.getOriginLongitude(),
+                order.getDestinationLatitude(), order.getDestinationLongitude(),
+                order.getDistance(), order.getEstimatedTime(),
+                EventTimestamps.toEpochMillis(order.getUpdatedAt()));
+    }
+}
@@ -0,0 +1,21 @@
+package com.logistics.orders.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logistics.orders.model.Order;
+
+/** Payload de order.status.updated e order.cancelled. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderStatusUpdatedEvent(
+        int version,
+        Long orderId,
+        Order.OrderStatus status,
+        Long driverId,
+        Long updatedAt) {
+
+    public static final int VERSION = 1;
+
+    public static OrderStatusUpdatedEvent from(Order order) {
+        return new OrderStatusUpdatedEvent(VERSION, order.getId(), order.getStatus(), order.getDriverId(),
+                EventTimestamps.toEpochMillis(order.getUpdatedAt()));
+    }
+}
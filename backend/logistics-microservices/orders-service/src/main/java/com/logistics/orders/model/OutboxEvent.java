@@ -0,0 +1,58 @@
+package com.logistics.orders.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Evento gravado na mesma transação da alteração de negócio e publicado depois
+ * no RabbitMQ pelo OutboxRelay. A linha é apagada quando o broker confirma o recebimento.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String exchange;
+    
+    @Column(nullable = false)
+    private String routingKey;
+    
+    // Corpo já serializado pelo MessageConverter, com o content-type e o tipo que ele definiu
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+    
+    private String contentType;
+    private String typeId;
+    
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public OutboxEvent() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getExchange() { return exchange; }
+    public void setExchange(String exchange) { this.exchange = exchange; }
+    
+    public String getRoutingKey() { return routingKey; }
+    public void setRoutingKey(String routingKey) { this.routingKey = routingKey; }
+    
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+    
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    
+    public String getTypeId() { return typeId; }
+    public void setTypeId(String typeId) { this.typeId = typeId; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -2,7 +2,12 @@ package com.logistics.orders.repository;
 
 import com.logistics.orders.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,4 +16,24 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByDriverId(Long driverId);
     List<Order> findByStatus(Order.OrderStatus status);
     List<Order> findByCustomerIdAndStatus(Long customerId, Order.OrderStatus status);
+    
+    // Pedidos criados em modo assíncrono cuja rota ainda não foi calculada
+    @Query("SELECT o.id FROM Order o WHERE o.distance IS NULL AND o.status <> :excluded AND o.createdAt < :before")
+    List<Long> findIdsWithoutRoute(@Param("excluded") Order.OrderStatus excluded, @Param("before") LocalDateTime before);
+    
+    @Modifying
+    @Transactional
+    // Só os campos da rota: não sobrescreve status ou motorista alterados enquanto a rota era calculada
+    @Query("UPDATE Order o SET o.distance = :distance, o.estimatedTime = :estimatedTime, " +
+           "o.originLatitude = :originLatitude, o.originLongitude = :originLongitude, " +
+           "o.destinationLatitude = :destinationLatitude, o.destinationLongitude = :destinationLongitude, " +
+           "o.updatedAt = :updatedAt WHERE o.id = :id AND o.distance IS NULL")
+    int updateRoute(@Param("id") Long id,
+                    @Param("distance") Double distance,
+                    @Param("estimatedTime") Integer estimatedTime,
+                    @Param("originLatitude") Double originLatitude,
+                    @Param("originLongitude") Double originLongitude,
+                    @Param("destinationLatitude") Double destinationLatitude,
+                    @Param("destinationLongitude") Double destinationLongitude,
+                    @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
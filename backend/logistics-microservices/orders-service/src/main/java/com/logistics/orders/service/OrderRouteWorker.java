@@ -0,0 +1,154 @@
+package com.logistics.orders.service;
+
+import com.logistics.orders.dto.RouteResponse;
+import com.logistics.orders.event.OrderRouteCalculatedEvent;
+import com.logistics.orders.model.Order;
+import com.logistics.orders.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calcula em segundo plano a rota dos pedidos criados em modo assíncrono e publica
+ * {@code order.route.calculated} quando distância, tempo estimado e coordenadas são gravados.
+ * Pedidos que não entraram na fila (fila cheia, reinício do serviço) são recuperados
+ * pela varredura periódica de pedidos sem rota.
+ */
+@Service
+public class OrderRouteWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRouteWorker.class);
+
+    private final OrderRepository orderRepository;
+    private final RouteService routeService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Duration sweepGrace;
+    // Evita calcular a mesma rota duas vezes quando a varredura encontra um pedido ainda na fila
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final Counter droppedCounter;
+    private final Timer lagTimer;
+
+    public OrderRouteWorker(OrderRepository orderRepository,
+                            RouteService routeService,
+                            OutboxService outboxService,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${orders.route-worker.threads:4}") int threads,
+                            @Value("${orders.route-worker.queue-capacity:1000}") int queueCapacity,
+                            @Value("${orders.route-worker.sweep-grace:1m}") Duration sweepGrace) {
+        this.orderRepository = orderRepository;
+        this.routeService = routeService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.sweepGrace = sweepGrace;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-route-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("orders.route-worker.queue.depth", executor, e -> e.getQueue().size())
+                .description("Pedidos aguardando cálculo de rota")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("orders.route-worker.deferred")
+                .description("Pedidos que não couberam na fila e ficaram para a varredura")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("orders.route-worker.lag")
+                .description("Tempo entre a criação do pedido e a gravação da rota")
+                .register(meterRegistry);
+    }
+
+    public void submit(Long orderId) {
+        if (!pending.add(orderId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    enrich(orderId);
+                } finally {
+                    pending.remove(orderId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(orderId);
+            droppedCounter.increment();
+            logger.warn("Fila de cálculo de rotas cheia, pedido {} será processado na próxima varredura", orderId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.route-worker.sweep-interval:PT1M}")
+    public void sweep() {
+        List<Long> orderIds = orderRepository.findIdsWithoutRoute(
+                Order.OrderStatus.CANCELLED, LocalDateTime.now().minus(sweepGrace));
+        orderIds.forEach(this::submit);
+    }
+
+    void enrich(Long orderId) {
+        try {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null || order.getDistance() != null) {
+                return;
+            }
+
+            RouteResponse route = routeService.calculateRoute(order.getOriginAddress(), order.getDestinationAddress());
+            // Gravação da rota e evento na mesma transação; o OutboxRelay publica depois do commit
+            Boolean updated = transactionTemplate.execute(status -> {
+                int rows = orderRepository.updateRoute(orderId,
+                        route.getDistance(), route.getDuration(),
+                        route.getOriginLatitude(), route.getOriginLongitude(),
+                        route.getDestinationLatitude(), route.getDestinationLongitude(),
+                        LocalDateTime.now());
+                if (rows == 0) {
+                    return false;
+                }
+                orderRepository.findById(orderId).ifPresent(enriched ->
+                        outboxService.enqueue("order.exchange", "order.route.calculated", OrderRouteCalculatedEvent.from(enriched)));
+                return true;
+            });
+
+            if (Boolean.TRUE.equals(updated)) {
+                lagTimer.record(Duration.between(order.getCreatedAt(), LocalDateTime.now()));
+            }
+        } catch (Exception e) {
+            // O pedido continua sem rota e volta na próxima varredura
+            logger.warn("Erro ao calcular rota do pedido {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
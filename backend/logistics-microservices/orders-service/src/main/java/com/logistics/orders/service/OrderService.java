@@ -2,11 +2,15 @@ package com.logistics.orders.service;
 
 import com.logistics.orders.dto.CreateOrderRequest;
 import com.logistics.orders.dto.RouteResponse;
+import com.logistics.orders.event.OrderCreatedEvent;
+import com.logistics.orders.event.OrderDriverAssignedEvent;
+import com.logistics.orders.event.OrderStatusUpdatedEvent;
 import com.logistics.orders.model.Order;
 import com.logistics.orders.repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,16 +25,16 @@ public class OrderService {
     private RouteService routeService;
     
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private OrderRouteWorker orderRouteWorker;
     
     public Order createOrder(CreateOrderRequest request) {
-        Order order = new Order();
-        order.setCustomerId(request.getCustomerId());
-        order.setOriginAddress(request.getOriginAddress());
-        order.setDestinationAddress(request.getDestinationAddress());
-        order.setCargoType(request.getCargoType());
-        order.setDescription(request.getDescription());
-        order.setPrice(request.getPrice());
+        Order order = newOrder(request);
         
         // Calcular rota
         RouteResponse route = routeService.calculateRoute(
@@ -40,15 +44,55 @@ public class OrderService {
         
         order.setDistance(route.getDistance());
         order.setEstimatedTime(route.getDuration());
+        // Coordenadas vão no evento order.created: os consumidores não precisam geocodificar de novo
+        order.setOriginLatitude(route.getOriginLatitude());
+        order.setOriginLongitude(route.getOriginLongitude());
+        order.setDestinationLatitude(route.getDestinationLatitude());
+        order.setDestinationLongitude(route.getDestinationLongitude());
         
-        Order savedOrder = orderRepository.save(order);
+        // Rota calculada fora da transação: a conexão com o banco só é usada para gravar
+        return transactionTemplate.execute(status -> {
+            Order savedOrder = orderRepository.save(order);
+            
+            // Evento de novo pedido, publicado pelo OutboxRelay depois do commit
+            outboxService.enqueue("order.exchange", "order.created", OrderCreatedEvent.from(savedOrder));
+            
+            return savedOrder;
+        });
+    }
+    
+    /**
+     * Grava o pedido como PENDING, sem distância nem tempo estimado, e devolve na hora.
+     * A rota é calculada em segundo plano; quando fica pronta o pedido é atualizado
+     * e o evento order.route.calculated é publicado.
+     */
+    public Order createOrderAsync(CreateOrderRequest request) {
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order order = orderRepository.save(newOrder(request));
+            
+            // Evento de novo pedido (ainda sem rota)
+            outboxService.enqueue("order.exchange", "order.created", OrderCreatedEvent.from(order));
+            
+            return order;
+        });
         
-        // Publicar evento de novo pedido
-        rabbitTemplate.convertAndSend("order.exchange", "order.created", savedOrder);
+        // Só depois do commit: o worker precisa encontrar o pedido no banco
+        orderRouteWorker.submit(savedOrder.getId());
         
         return savedOrder;
     }
     
+    private Order newOrder(CreateOrderRequest request) {
+        Order order = new Order();
+        order.setCustomerId(request.getCustomerId());
+        order.setOriginAddress(request.getOriginAddress());
+        order.setDestinationAddress(request.getDestinationAddress());
+        order.setCargoType(request.getCargoType());
+        order.setDescription(request.getDescription());
+        order.setPrice(request.getPrice());
+        return order;
+    }
+    
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
@@ -69,6 +113,7 @@ public class OrderService {
         return orderRepository.findByStatus(status);
     }
     
+    @Transactional
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
@@ -78,12 +123,13 @@ public class OrderService {
         
         Order updatedOrder = orderRepository.save(order);
         
-        // Publicar evento de status atualizado
-        rabbitTemplate.convertAndSend("order.exchange", "order.status.updated", updatedOrder);
+        // Evento de status atualizado
+        outboxService.enqueue("order.exchange", "order.status.updated", OrderStatusUpdatedEvent.from(updatedOrder));
         
         return updatedOrder;
     }
     
+    @Transactional
     public Order assignDriver(Long orderId, Long driverId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
@@ -93,12 +139,13 @@ public class OrderService {
         
         Order updatedOrder = orderRepository.save(order);
         
-        // Publicar evento de motorista atribuído
-        rabbitTemplate.convertAndSend("order.exchange", "order.driver.assigned", updatedOrder);
+        // Evento de motorista atribuído
+        outboxService.enqueue("order.exchange", "order.driver.assigned", OrderDriverAssignedEvent.from(updatedOrder));
         
         return updatedOrder;
     }
     
+    @Transactional
     public void cancelOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
@@ -106,7 +153,7 @@ public class OrderService {
         order.setStatus(Order.OrderStatus.CANCELLED);
         orderRepository.save(order);
         
-        // Publicar evento de cancelamento
-        rabbitTemplate.convertAndSend("order.exchange", "order.cancelled", order);
+        // Evento de cancelamento
+        outboxService.enqueue("order.exchange", "order.cancelled", OrderStatusUpdatedEvent.from(order));
     }
 }
\ No newline at end of file
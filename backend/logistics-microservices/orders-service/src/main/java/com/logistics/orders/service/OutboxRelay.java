@@ -0,0 +1,114 @@
+package com.logistics.orders.service;
+
+import com.logistics.orders.model.OutboxEvent;
+import com.logistics.orders.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Drena a tabela outbox_events em lotes: publica o lote inteiro no mesmo canal, espera
+ * uma única confirmação do broker (publisher confirms) e apaga as linhas na mesma transação.
+ * Se o broker falhar ou não confirmar, a transação volta e o lote é reenviado na próxima
+ * rodada (entrega at-least-once; o messageId permite aos consumidores descartar duplicatas).
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+
+        this.publishedCounter = Counter.builder("orders.outbox.published")
+                .description("Eventos publicados e confirmados pelo broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("orders.outbox.failed")
+                .description("Lotes não confirmados, reenviados na próxima rodada")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.outbox.batch")
+                .description("Tempo para publicar e confirmar um lote")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:PT0.2S}")
+    public void relay() {
+        // Lote cheio indica atraso acumulado: continua drenando sem esperar o próximo ciclo
+        int published;
+        do {
+            published = publishBatch();
+        } while (published == batchSize);
+    }
+
+    private int publishBatch() {
+        try {
+            Integer published = batchTimer.record(() -> transactionTemplate.execute(status -> {
+                List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                rabbitTemplate.invoke(operations -> {
+                    for (OutboxEvent event : batch) {
+                        operations.send(event.getExchange(), event.getRoutingKey(), toMessage(event));
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+                    return null;
+                });
+                outboxEventRepository.deleteAllInBatch(batch);
+                return batch.size();
+            }));
+            int count = published != null ? published : 0;
+            publishedCounter.increment(count);
+            return count;
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.warn("Falha ao publicar lote do outbox, nova tentativa no próximo ciclo: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(event.getContentType());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId("orders-service:" + event.getId());
+        properties.setTimestamp(Timestamp.valueOf(event.getCreatedAt()));
+        if (event.getTypeId() != null) {
+            properties.setHeader("__TypeId__", event.getTypeId());
+        }
+        return new Message(event.getPayload(), properties);
+    }
+}
@@ -1,6 +1,13 @@
 package com.logistics.orders.service;
 
 import com.logistics.orders.dto.RouteResponse;
+import com.logistics.orders.util.LruTtlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.RestClientException;
@@ -9,24 +16,103 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
 public class RouteService {
     
+    // Belo Horizonte: usado quando o endereço não pode ser geocodificado
+    private static final double[] DEFAULT_COORDINATES = {-19.9208, -43.9378};
+    
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
-    public RouteService() {
-        this.restTemplate = new RestTemplate();
+    // Origem e destino são geocodificados em paralelo neste pool, fora da thread da requisição
+    private final ThreadPoolExecutor geocodingExecutor;
+    private final long geocodeTimeoutMillis;
+    
+    // Nível 1: endereço normalizado -> coordenadas (endereços mudam pouco, TTL longo)
+    private final LruTtlCache<String, double[]> geocodeCache;
+    // Nível 2: par de coordenadas -> rota (distância, duração e geometria)
+    private final LruTtlCache<String, RouteResponse> routeCache;
+    
+    public RouteService(MeterRegistry meterRegistry,
+                        @Value("${orders.route-cache.geocode.max-size:20000}") int geocodeMaxSize,
+                        @Value("${orders.route-cache.geocode.ttl:30d}") Duration geocodeTtl,
+                        @Value("${orders.route-cache.route.max-size:10000}") int routeMaxSize,
+                        @Value("${orders.route-cache.route.ttl:24h}") Duration routeTtl,
+                        @Value("${orders.routing.connect-timeout:2s}") Duration connectTimeout,
+                        @Value("${orders.routing.read-timeout:5s}") Duration readTimeout,
+                        @Value("${orders.routing.geocode-timeout:3s}") Duration geocodeTimeout,
+                        @Value("${orders.routing.geocoding-threads:8}") int geocodingThreads,
+                        @Value("${orders.routing.geocoding-queue-capacity:100}") int geocodingQueueCapacity) {
+        // Sem timeout, uma chamada presa ao Nominatim/OSRM seguraria a thread indefinidamente
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restTemplate = new RestTemplate(requestFactory);
         this.objectMapper = new ObjectMapper();
+        this.geocodeTimeoutMillis = geocodeTimeout.toMillis();
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        // Fila cheia: a thread da requisição geocodifica ela mesma, sem paralelismo, em vez de falhar
+        this.geocodingExecutor = new ThreadPoolExecutor(
+                geocodingThreads, geocodingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(geocodingQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "geocoding-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("orders.geocoding.queue.depth", geocodingExecutor, e -> e.getQueue().size())
+                .description("Geocodificações aguardando thread livre")
+                .register(meterRegistry);
+        this.geocodeCache = new LruTtlCache<>(geocodeMaxSize, geocodeTtl.toMillis());
+        this.routeCache = new LruTtlCache<>(routeMaxSize, routeTtl.toMillis());
+        
+        registerCacheMetrics(meterRegistry, "orders.geocode.cache", geocodeCache);
+        registerCacheMetrics(meterRegistry, "orders.route.cache", routeCache);
+    }
+    
+    private static void registerCacheMetrics(MeterRegistry meterRegistry, String prefix, LruTtlCache<?, ?> cache) {
+        FunctionCounter.builder(prefix + ".hits", cache, LruTtlCache::getHits)
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".misses", cache, LruTtlCache::getMisses)
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".evictions", cache, LruTtlCache::getEvictions)
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".expirations", cache, LruTtlCache::getExpirations)
+                .register(meterRegistry);
+        Gauge.builder(prefix + ".size", cache, LruTtlCache::size)
+                .register(meterRegistry);
     }
     
     @CircuitBreaker(name = "osrmRoute", fallbackMethod = "calculateFallbackRoute")
     @Retry(name = "osrmRoute")
     public RouteResponse calculateRoute(String originAddress, String destinationAddress) {
+        double[] originCoords = null;
+        double[] destCoords = null;
         try {
-            // Primeiro, obter coordenadas dos endereços usando Nominatim (OpenStreetMap)
-            double[] originCoords = getCoordinates(originAddress);
-            double[] destCoords = getCoordinates(destinationAddress);
+            // Primeiro, obter coordenadas dos endereços usando Nominatim (OpenStreetMap).
+            // As duas consultas são independentes: o tempo total passa a ser o da mais lenta
+            CompletableFuture<double[]> originFuture = getCoordinatesAsync(originAddress);
+            CompletableFuture<double[]> destFuture = getCoordinatesAsync(destinationAddress);
+            originCoords = originFuture.join();
+            destCoords = destFuture.join();
+            
+            String routeKey = routeKey(originCoords, destCoords);
+            RouteResponse cached = routeCache.get(routeKey);
+            if (cached != null) {
+                return cached;
+            }
             
             // Usar OSRM para calcular a rota
             String osrmUrl = String.format(
@@ -44,18 +130,62 @@ public class RouteService {
                 int duration = route.get("duration").asInt() / 60; // convertendo para minutos
                 String geometry = route.get("geometry").toString();
                 
-                return new RouteResponse(distance, duration, geometry);
+                RouteResponse routeResponse = new RouteResponse(distance, duration, geometry);
+                applyCoordinates(routeResponse, originCoords, destCoords);
+                routeCache.put(routeKey, routeResponse);
+                return routeResponse;
             }
-            
+        
         } catch (Exception e) {
-            // Fallback para cálculo simples baseado em distância linear
-            return calculateFallbackRoute(originAddress, destinationAddress, e);
+            // Fallback para cálculo simples baseado em distância linear;
+            // se o geocoding funcionou e só o OSRM falhou, as coordenadas são aproveitadas
+            RouteResponse fallback = calculateFallbackRoute(originAddress, destinationAddress, e);
+            applyCoordinates(fallback, originCoords, destCoords);
+            return fallback;
         }
         
         return new RouteResponse(0.0, 0, "");
     }
     
+    // A coordenada padrão (endereço não encontrado) não é exposta como se fosse real
+    private static void applyCoordinates(RouteResponse route, double[] origin, double[] destination) {
+        if (origin != null && origin != DEFAULT_COORDINATES) {
+            route.setOriginLatitude(origin[0]);
+            route.setOriginLongitude(origin[1]);
+        }
+        if (destination != null && destination != DEFAULT_COORDINATES) {
+            route.setDestinationLatitude(destination[0]);
+            route.setDestinationLongitude(destination[1]);
+        }
+    }
+    
+    private CompletableFuture<double[]> getCoordinatesAsync(String address) {
+        double[] cached = geocodeCache.get(normalizeAddress(address));
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // Estourado o tempo, segue com as coordenadas padrão, como em qualquer outra falha de geocoding
+        return CompletableFuture.supplyAsync(() -> getCoordinates(address), geocodingExecutor)
+                .completeOnTimeout(DEFAULT_COORDINATES, geocodeTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    
     private double[] getCoordinates(String address) {
+        String key = normalizeAddress(address);
+        double[] cached = geocodeCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        double[] coordinates = geocode(address);
+        if (coordinates == null) {
+            // Coordenada padrão não entra no cache: a próxima chamada tenta geocodificar de novo
+            return DEFAULT_COORDINATES;
+        }
+        geocodeCache.put(key, coordinates);
+        return coordinates;
+    }
+    
+    private double[] geocode(String address) {
         try {
             String nominatimUrl = String.format(
                 "https://nominatim.openstreetmap.org/search?format=json&q=%s&limit=1",
@@ -72,17 +202,37 @@ public class RouteService {
                 return new double[]{lat, lon};
             }
         } catch (Exception e) {
-            // Em caso de erro, usar coordenadas padrão (centro de uma cidade)
-            return new double[]{-19.9208, -43.9378}; // Belo Horizonte como padrão
+            // Em caso de erro, o chamador usa as coordenadas padrão
+            return null;
         }
         
-        return new double[]{-19.9208, -43.9378};
+        return null;
+    }
+    
+    /** Caixa, acentos, pontuação e espaços repetidos não mudam o resultado do geocoding. */
+    static String normalizeAddress(String address) {
+        String withoutAccents = Normalizer.normalize(address, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return withoutAccents.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{Alnum}]+", " ")
+                .trim();
+    }
+    
+    // 5 casas decimais (~1 m): o mesmo endereço geocodificado de novo cai na mesma chave
+    static String routeKey(double[] origin, double[] destination) {
+        return String.format(Locale.ROOT, "%.5f,%.5f;%.5f,%.5f",
+                origin[0], origin[1], destination[0], destination[1]);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        geocodingExecutor.shutdownNow();
     }
     
     private RouteResponse calculateFallbackRoute(String origin, String destination, Throwable t) {
-        // Cálculo simplificado baseado na diferença de endereços
+        // Cálculo simplificado baseado na diferença de endereços; nunca vai para o cache
         double estimatedDistance = 10.0 + (Math.random() * 20); // 10-30 km
         int estimatedTime = (int) (estimatedDistance * 3); // ~3 min por km
         return new RouteResponse(estimatedDistance, estimatedTime, "");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.logistics.orders.service;
+
+import com.logistics.orders.dto.RouteResponse;
+import com.logistics.orders.event.OrderRouteCalculatedEvent;
+import com.logistics.orders.model.Order;
+import com.logistics.orders.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderRouteWorkerTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final RouteService routeService = mock(RouteService.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderRouteWorker worker;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (worker != null) {
+            worker.shutdown();
+        }
+    }
+
+    @Test
+    public void testOrderWithRouteIsSkipped() {
+        worker = worker(1, 10);
+        Order order = order(1L);
+        order.setDistance(12.5);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        worker.enrich(1L);
+
+        verify(routeService, never()).calculateRoute(anyString(), anyString());
+        verify(outboxService, never()).enqueue(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testRouteIsSavedAndRouteCalculatedEventEnqueued() {
+        worker = worker(1, 10);
+        runTransactionsInline();
+        Order order = order(1L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(routeService.calculateRoute("Origem", "Destino")).thenReturn(new RouteResponse(12.5, 20, null));
+        when(orderRepository.updateRoute(eq(1L), eq(12.5), eq(20), any(), any(), any(), any(), any())).thenReturn(1);
+
+        worker.enrich(1L);
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService).enqueue(eq("order.exchange"), eq("order.route.calculated"), payload.capture());
+        assertThat(payload.getValue()).isInstanceOf(OrderRouteCalculatedEvent.class);
+        assertThat(meterRegistry.get("orders.route-worker.lag").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentRouteUpdateDoesNotPublish() {
+        worker = worker(1, 10);
+        runTransactionsInline();
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order(1L)));
+        when(routeService.calculateRoute("Origem", "Destino")).thenReturn(new RouteResponse(12.5, 20, null));
+        // Outra execução já gravou a rota: o guarda distance IS NULL não atualiza nada
+        when(orderRepository.updateRoute(anyLong(), anyDouble(), anyInt(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        worker.enrich(1L);
+
+        verify(outboxService, never()).enqueue(anyString(), anyString(), any());
+        assertThat(meterRegistry.get("orders.route-worker.lag").timer().count()).isZero();
+    }
+
+    @Test
+    public void testSweepSubmitsOrdersWithoutRoute() {
+        worker = worker(1, 10);
+        when(orderRepository.findIdsWithoutRoute(eq(Order.OrderStatus.CANCELLED), any()))
+                .thenReturn(List.of(1L, 2L));
+
+        worker.sweep();
+
+        verify(orderRepository, timeout(1000)).findById(1L);
+        verify(orderRepository, timeout(1000)).findById(2L);
+    }
+
+    @Test
+    public void testFullQueueDefersOrderToSweep() throws InterruptedException {
+        worker = worker(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.findById(1L)).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        worker.submit(1L);
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        worker.submit(2L);
+        worker.submit(3L);
+        // Pedido já na fila não é enfileirado de novo nem conta como adiado
+        worker.submit(2L);
+
+        assertThat(meterRegistry.get("orders.route-worker.deferred").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    private OrderRouteWorker worker(int threads, int queueCapacity) {
+        return new OrderRouteWorker(orderRepository, routeService, outboxService, transactionTemplate,
+                meterRegistry, threads, queueCapacity, Duration.ofMinutes(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setOriginAddress("Origem");
+        order.setDestinationAddress("Destino");
+        order.setCreatedAt(LocalDateTime.now().minusSeconds(5));
+        return order;
+    }
+}
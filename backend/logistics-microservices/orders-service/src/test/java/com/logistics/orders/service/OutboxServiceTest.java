@@ -0,0 +1,87 @@
+package com.logistics.orders.service;
+
+import com.logistics.orders.config.RabbitConfig;
+import com.logistics.orders.event.OrderCreatedEvent;
+import com.logistics.orders.model.Order;
+import com.logistics.orders.model.OutboxEvent;
+import com.logistics.orders.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class OutboxServiceTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final MessageConverter messageConverter = new RabbitConfig().messageConverter();
+
+    @Test
+    public void testEnqueueStoresSerializedPayloadWithRoutingInfo() {
+        OutboxService outboxService = new OutboxService(repository, messageConverter, "application/json");
+
+        outboxService.enqueue("order.exchange", "order.created", OrderCreatedEvent.from(order()));
+
+        OutboxEvent event = captureSaved();
+        assertThat(event.getExchange()).isEqualTo("order.exchange");
+        assertThat(event.getRoutingKey()).isEqualTo("order.created");
+        assertThat(event.getContentType()).isEqualTo("application/json");
+        assertThat(event.getTypeId()).isEqualTo(OrderCreatedEvent.class.getName());
+        assertThat(new String(event.getPayload(), StandardCharsets.UTF_8))
+                .contains("\"orderId\":10")
+                .contains("\"customerId\":3")
+                .doesNotContain("description");
+    }
+
+    @Test
+    public void testCborPayloadIsSmallerAndRoundTrips() {
+        OrderCreatedEvent created = OrderCreatedEvent.from(order());
+        new OutboxService(repository, messageConverter, "application/cbor")
+                .enqueue("order.exchange", "order.created", created);
+
+        OutboxEvent event = captureSaved();
+        assertThat(event.getContentType()).isEqualTo("application/cbor");
+        byte[] json = messageConverter.toMessage(created, jsonProperties()).getBody();
+        assertThat(event.getPayload().length).isLessThan(json.length);
+
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(event.getContentType());
+        properties.setHeader("__TypeId__", event.getTypeId());
+        Object decoded = messageConverter.fromMessage(new Message(event.getPayload(), properties));
+        assertThat(decoded).isEqualTo(created);
+    }
+
+    private OutboxEvent captureSaved() {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(repository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static MessageProperties jsonProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType("application/json");
+        return properties;
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setId(10L);
+        order.setCustomerId(3L);
+        order.setOriginAddress("Av. Afonso Pena, 1000, Belo Horizonte");
+        order.setDestinationAddress("Praça da Liberdade, Belo Horizonte");
+        order.setOriginLatitude(-19.9208);
+        order.setOriginLongitude(-43.9378);
+        order.setDestinationLatitude(-19.9320);
+        order.setDestinationLongitude(-43.9380);
+        order.setDescription("Caixas de documentos");
+        order.setDistance(2.4);
+        order.setEstimatedTime(9);
+        return order;
+    }
+}
@@ -0,0 +1,25 @@
+package com.logistics.orders.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RouteServiceTest {
+
+    @Test
+    public void testNormalizeAddressIgnoresCaseAccentsAndPunctuation() {
+        assertThat(RouteService.normalizeAddress("  Av. Afonso Pena,  1000 - Belo Horizonte "))
+                .isEqualTo(RouteService.normalizeAddress("av afonso pena 1000 belo horizonte"));
+        assertThat(RouteService.normalizeAddress("Praça da Liberdade, São Paulo"))
+                .isEqualTo("praca da liberdade sao paulo");
+    }
+
+    @Test
+    public void testRouteKeyRoundsCoordinates() {
+        String key = RouteService.routeKey(new double[]{-19.920812, -43.937801}, new double[]{-19.9, -43.9});
+
+        assertThat(key).isEqualTo("-19.92081,-43.93780;-19.90000,-43.90000");
+        assertThat(RouteService.routeKey(new double[]{-19.9208119, -43.9378011}, new double[]{-19.9, -43.9}))
+                .isEqualTo(key);
+    }
+}
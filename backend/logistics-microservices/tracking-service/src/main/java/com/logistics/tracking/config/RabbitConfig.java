@@ -1,12 +1,18 @@
 package com.logistics.tracking.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class RabbitConfig {
     
@@ -25,6 +31,9 @@ public class RabbitConfig {
         return QueueBuilder.durable("delivery.completed.queue").build();
     }
     
+    // location.updated é o fluxo conflacionado (LocationConflator). location.updated.raw leva todo
+    // ping aceito, inclusive os que o dead-band não grava no histórico; não tem fila declarada aqui:
+    // quem precisa dele liga a própria fila ao exchange
     @Bean
     public Binding locationUpdatedBinding() {
         return BindingBuilder
@@ -41,9 +50,102 @@ public class RabbitConfig {
                 .with("delivery.completed");
     }
     
+    // Eventos do orders-service consumidos aqui: filas próprias ligadas ao order.exchange
+    @Bean
+    public TopicExchange orderExchange() {
+        return new TopicExchange("order.exchange");
+    }
+    
+    @Bean
+    public Queue orderDriverAssignedQueue() {
+        return QueueBuilder.durable("tracking.order.driver.assigned.queue").build();
+    }
+    
+    @Bean
+    public Queue orderCancelledQueue() {
+        return QueueBuilder.durable("tracking.order.cancelled.queue").build();
+    }
+    
+    @Bean
+    public Queue orderRouteCalculatedQueue() {
+        return QueueBuilder.durable("tracking.order.route.calculated.queue").build();
+    }
+    
+    @Bean
+    public Binding orderDriverAssignedBinding() {
+        return BindingBuilder
+                .bind(orderDriverAssignedQueue())
+                .to(orderExchange())
+                .with("order.driver.assigned");
+    }
+    
+    @Bean
+    public Binding orderCancelledBinding() {
+        return BindingBuilder
+                .bind(orderCancelledQueue())
+                .to(orderExchange())
+                .with("order.cancelled");
+    }
+    
+    @Bean
+    public Binding orderRouteCalculatedBinding() {
+        return BindingBuilder
+                .bind(orderRouteCalculatedQueue())
+                .to(orderExchange())
+                .with("order.route.calculated");
+    }
+    
+    // Codec escolhido pelo content-type: na leitura, o da mensagem; na escrita, events.content-type
+    @Bean
+    public MessageConverter messageConverter() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(json);
+        converter.addDelegate("application/json", json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE, new Jackson2CborMessageConverter());
+        return converter;
+    }
+    
+    // Mudanças de rastreamento para o SSE: cada instância recebe todas numa fila anônima
+    // (exclusiva, removida quando a instância cai) e entrega aos clientes conectados a ela
+    @Bean
+    public FanoutExchange trackingStreamExchange() {
+        return new FanoutExchange("tracking.stream.exchange");
+    }
+    
+    @Bean
+    public Queue trackingStreamQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding trackingStreamBinding() {
+        return BindingBuilder
+                .bind(trackingStreamQueue())
+                .to(trackingStreamExchange());
+    }
+    
+    // Listeners em lote: cada consumidor junta até batch-size mensagens (ou o que chegou em
+    // receive-timeout) e o listener grava o lote inteiro num único upsert
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${tracking.order-events.batch-size:100}") int batchSize,
+            @Value("${tracking.order-events.receive-timeout:200ms}") Duration receiveTimeout,
+            @Value("${tracking.order-events.prefetch:250}") int prefetch,
+            @Value("${tracking.order-events.concurrency:2}") int concurrency,
+            @Value("${tracking.order-events.max-concurrency:4}") int maxConcurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout.toMillis());
+        // Com prefetch menor que o lote o consumidor ficaria esperando o receive-timeout a cada lote
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(maxConcurrency);
+        return factory;
     }
     
     @Bean
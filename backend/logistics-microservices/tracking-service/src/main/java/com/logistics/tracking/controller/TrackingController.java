@@ -1,10 +1,14 @@
 package com.logistics.tracking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.tracking.dto.EncodedTrack;
+import com.logistics.tracking.dto.LocationPage;
 import com.logistics.tracking.dto.LocationUpdateRequest;
 import com.logistics.tracking.dto.TrackingResponse;
 import com.logistics.tracking.model.DeliveryTracking;
 import com.logistics.tracking.model.Location;
 import com.logistics.tracking.service.TrackingService;
+import com.logistics.tracking.service.TrackingStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +17,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -24,10 +40,25 @@ import java.util.List;
 @Tag(name = "Tracking", description = "Endpoints de rastreamento de entregas")
 public class TrackingController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_NEARBY_RADIUS_KM = 50;
+    private static final int MAX_NEARBY_LIMIT = 500;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String POLYLINE = "application/vnd.logistics.polyline+json";
+
     @Autowired
     private TrackingService trackingService;
 
-    @Operation(summary = "Atualiza a localização de uma entrega")
+    @Autowired
+    private TrackingStreamService trackingStreamService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Operation(summary = "Atualiza a localização de uma entrega",
+        description = "Pontos sobre a trajetória prevista não são gravados no histórico: voltam com " +
+                      "persisted=false e id nulo, mas atualizam a posição atual e os eventos do mesmo jeito")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Localização atualizada com sucesso",
             content = @Content(schema = @Schema(implementation = Location.class))),
@@ -43,6 +74,24 @@ public class TrackingController {
         }
     }
 
+    @Operation(summary = "Registra um lote de localizações",
+        description = "Recebe pontos acumulados pelo app (ex.: enquanto offline) e grava com INSERTs em batch. " +
+                      "Cada item volta com persisted=false (e id nulo) se não foi gravado no histórico")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Localizações registradas com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Requisição inválida")
+    })
+    @PostMapping("/locations/batch")
+    public ResponseEntity<List<Location>> updateLocations(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid LocationUpdateRequest> requests) {
+        try {
+            List<Location> locations = trackingService.updateLocations(requests);
+            return ResponseEntity.ok(locations);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(summary = "Obtém informações de rastreamento de um pedido")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Informações de rastreamento retornadas com sucesso"),
@@ -56,22 +105,169 @@ public class TrackingController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Acompanha o rastreamento de um pedido em tempo real (SSE)",
+        description = "Substitui o polling de /order/{orderId} e /current: o primeiro evento 'tracking' traz o " +
+                      "estado completo e cada mudança seguinte vem num 'tracking-delta' com orderId, lastUpdate e " +
+                      "só os campos alterados. O id do evento é a versão; ao reconectar com Last-Event-ID, o " +
+                      "estado só é reenviado se houver mudança desde então")
+    @GetMapping(value = "/order/{orderId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderTracking(
+            @Parameter(description = "ID do pedido") @PathVariable Long orderId,
+            @Parameter(description = "Último id de evento recebido (enviado automaticamente pelo EventSource)")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return trackingStreamService.subscribe(orderId, lastEventId);
+    }
+
     @Operation(summary = "Obtém o histórico de localizações de um pedido")
     @GetMapping("/order/{orderId}/history")
     public ResponseEntity<List<Location>> getLocationHistory(
-            @Parameter(description = "ID do pedido") @PathVariable Long orderId) {
-        List<Location> history = trackingService.getLocationHistory(orderId);
+            @Parameter(description = "ID do pedido") @PathVariable Long orderId,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance) {
+        List<Location> history = trackingService.getLocationHistory(orderId, tolerance);
         return ResponseEntity.ok(history);
     }
 
+    @Operation(summary = "Obtém o histórico de um pedido em formato compacto",
+        description = "Coordenadas em encoded polyline e timestamps em segundos desde o início, em ordem cronológica")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso"),
+        @ApiResponse(responseCode = "400", description = "limit não é suportado neste formato")
+    })
+    @GetMapping(value = "/order/{orderId}/history", produces = POLYLINE)
+    public ResponseEntity<EncodedTrack> getEncodedLocationHistory(
+            @Parameter(description = "ID do pedido") @PathVariable Long orderId,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance,
+            @Parameter(hidden = true) @RequestParam(required = false) String limit) {
+        // Paginação só existe em JSON: sem isso, o limit seria ignorado em silêncio
+        if (limit != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Location> history = trackingService.getLocationHistory(orderId, tolerance);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(POLYLINE))
+                .body(new EncodedTrack(history));
+    }
+
+    @Operation(summary = "Obtém uma página do histórico de localizações de um pedido",
+        description = "Paginação por cursor: envie o nextCursor da resposta anterior para obter a página seguinte")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Cursor ou limite inválido")
+    })
+    @GetMapping(value = "/order/{orderId}/history", params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<LocationPage> getLocationHistoryPage(
+            @Parameter(description = "ID do pedido") @PathVariable Long orderId,
+            @Parameter(description = "Itens por página") @RequestParam @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+            @Parameter(description = "Cursor retornado na página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance) {
+        try {
+            return ResponseEntity.ok(trackingService.getLocationHistoryPage(orderId, cursor, limit, tolerance));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Transmite o histórico de localizações de um pedido em NDJSON",
+        description = "Uma localização por linha, escrita à medida que é lida do banco. Com tolerance a " +
+                      "trajetória é simplificada antes, então a escrita só começa depois da leitura completa")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Histórico transmitido"),
+        @ApiResponse(responseCode = "400", description = "limit não é suportado neste formato")
+    })
+    @GetMapping(value = "/order/{orderId}/history", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamLocationHistory(
+            @Parameter(description = "ID do pedido") @PathVariable Long orderId,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance,
+            @Parameter(hidden = true) @RequestParam(required = false) String limit) {
+        if (limit != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = tolerance == null
+                ? out -> trackingService.streamLocationHistory(orderId, location -> writeLine(out, location))
+                : out -> trackingService.getLocationHistory(orderId, tolerance).forEach(location -> writeLine(out, location));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @Operation(summary = "Obtém o histórico de localizações de um motorista")
     @GetMapping("/driver/{driverId}/history")
     public ResponseEntity<List<Location>> getDriverLocationHistory(
-            @Parameter(description = "ID do motorista") @PathVariable Long driverId) {
-        List<Location> history = trackingService.getDriverLocationHistory(driverId);
+            @Parameter(description = "ID do motorista") @PathVariable Long driverId,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance) {
+        List<Location> history = trackingService.getDriverLocationHistory(driverId, tolerance);
         return ResponseEntity.ok(history);
     }
 
+    @Operation(summary = "Obtém o histórico de um motorista em formato compacto",
+        description = "Coordenadas em encoded polyline e timestamps em segundos desde o início, em ordem cronológica")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso"),
+        @ApiResponse(responseCode = "400", description = "limit não é suportado neste formato")
+    })
+    @GetMapping(value = "/driver/{driverId}/history", produces = POLYLINE)
+    public ResponseEntity<EncodedTrack> getEncodedDriverLocationHistory(
+            @Parameter(description = "ID do motorista") @PathVariable Long driverId,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance,
+            @Parameter(hidden = true) @RequestParam(required = false) String limit) {
+        // Paginação só existe em JSON: sem isso, o limit seria ignorado em silêncio
+        if (limit != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Location> history = trackingService.getDriverLocationHistory(driverId, tolerance);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(POLYLINE))
+                .body(new EncodedTrack(history));
+    }
+
+    @Operation(summary = "Obtém uma página do histórico de localizações de um motorista",
+        description = "Paginação por cursor: envie o nextCursor da resposta anterior para obter a página seguinte")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Cursor ou limite inválido")
+    })
+    @GetMapping(value = "/driver/{driverId}/history", params = "limit", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<LocationPage> getDriverLocationHistoryPage(
+            @Parameter(description = "ID do motorista") @PathVariable Long driverId,
+            @Parameter(description = "Itens por página") @RequestParam @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+            @Parameter(description = "Cursor retornado na página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance) {
+        try {
+            return ResponseEntity.ok(trackingService.getDriverLocationHistoryPage(driverId, cursor, limit, tolerance));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Transmite o histórico de localizações de um motorista em NDJSON",
+        description = "Uma localização por linha, escrita à medida que é lida do banco. Com tolerance a " +
+                      "trajetória é simplificada antes, então a escrita só começa depois da leitura completa")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Histórico transmitido"),
+        @ApiResponse(responseCode = "400", description = "limit não é suportado neste formato")
+    })
+    @GetMapping(value = "/driver/{driverId}/history", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamDriverLocationHistory(
+            @Parameter(description = "ID do motorista") @PathVariable Long driverId,
+            @Parameter(description = "Tolerância em metros para simplificar a trajetória (Douglas-Peucker)") @RequestParam(required = false) @PositiveOrZero Double tolerance,
+            @Parameter(hidden = true) @RequestParam(required = false) String limit) {
+        if (limit != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = tolerance == null
+                ? out -> trackingService.streamDriverLocationHistory(driverId, location -> writeLine(out, location))
+                : out -> trackingService.getDriverLocationHistory(driverId, tolerance).forEach(location -> writeLine(out, location));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private void writeLine(OutputStream out, Location location) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(location));
+            out.write('\n');
+        } catch (IOException e) {
+            // Cliente desconectou: interrompe a leitura do banco
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Operation(summary = "Obtém a localização atual de um pedido")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Localização atual retornada"),
@@ -98,18 +294,25 @@ public class TrackingController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Obtém entregas próximas a uma coordenada")
+    @Operation(summary = "Obtém entregas próximas a uma coordenada",
+        description = "Retorna a última posição de cada motorista dentro do raio, ordenada pela distância. " +
+                      "Raio acima de " + MAX_NEARBY_RADIUS_KM + " km ou limit acima de " + MAX_NEARBY_LIMIT + " retornam 400")
     @GetMapping("/nearby")
     public ResponseEntity<List<Location>> getNearbyDeliveries(
             @Parameter(description = "Latitude de referência") @RequestParam Double latitude,
             @Parameter(description = "Longitude de referência") @RequestParam Double longitude,
-            @Parameter(description = "Raio em quilômetros", example = "5.0") @RequestParam(defaultValue = "5.0") Double radiusKm) {
+            @Parameter(description = "Raio em quilômetros", example = "5.0")
+            @RequestParam(defaultValue = "5.0") @Positive @Max(MAX_NEARBY_RADIUS_KM) Double radiusKm,
+            @Parameter(description = "Retorna apenas os k motoristas mais próximos")
+            @RequestParam(required = false) @Positive @Max(MAX_NEARBY_LIMIT) Integer limit) {
         
-        List<Location> nearbyDeliveries = trackingService.getNearbyDeliveries(latitude, longitude, radiusKm);
+        List<Location> nearbyDeliveries = trackingService.getNearbyDeliveries(latitude, longitude, radiusKm, limit);
         return ResponseEntity.ok(nearbyDeliveries);
     }
 
-    @Operation(summary = "Cria o rastreamento de uma nova entrega")
+    @Operation(summary = "Cria o rastreamento de uma nova entrega",
+               description = "Normalmente desnecessário: o rastreamento é aberto automaticamente " +
+                             "quando o orders-service publica order.driver.assigned")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Rastreamento criado com sucesso"),
         @ApiResponse(responseCode = "400", description = "Erro ao criar rastreamento")
@@ -119,10 +322,16 @@ public class TrackingController {
             @Parameter(description = "ID do pedido") @RequestParam Long orderId,
             @Parameter(description = "ID do motorista") @RequestParam Long driverId,
             @Parameter(description = "Endereço de origem") @RequestParam String originAddress,
-            @Parameter(description = "Endereço de destino") @RequestParam String destinationAddress) {
+            @Parameter(description = "Endereço de destino") @RequestParam String destinationAddress,
+            @Parameter(description = "Latitude da origem") @RequestParam(required = false) Double originLatitude,
+            @Parameter(description = "Longitude da origem") @RequestParam(required = false) Double originLongitude,
+            @Parameter(description = "Latitude do destino") @RequestParam(required = false) Double destinationLatitude,
+            @Parameter(description = "Longitude do destino") @RequestParam(required = false) Double destinationLongitude) {
         
         try {
-            DeliveryTracking tracking = trackingService.createTracking(orderId, driverId, originAddress, destinationAddress);
+            DeliveryTracking tracking = trackingService.createTracking(orderId, driverId,
+                    originAddress, originLatitude, originLongitude,
+                    destinationAddress, destinationLatitude, destinationLongitude);
             return ResponseEntity.ok(tracking);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -0,0 +1,62 @@
+package com.logistics.tracking.dto;
+
+import com.logistics.tracking.model.Location;
+import com.logistics.tracking.util.PolylineEncoder;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Histórico compacto: coordenadas em encoded polyline e timestamps como
+ * diferenças em segundos a partir de {@code startTime}, também em polyline.
+ * Os pontos ficam em ordem cronológica.
+ */
+public class EncodedTrack {
+    public static final int PRECISION = 5; // ~1 m
+    
+    private int count;
+    private int precision;
+    private LocalDateTime startTime;
+    private String polyline;
+    private String timeOffsets; // segundos desde startTime, codificados em polyline
+    
+    public EncodedTrack() {}
+    
+    // Recebe os pontos em qualquer ordem de timestamp; o histórico do repositório vem do mais novo para o mais antigo
+    public EncodedTrack(List<Location> points) {
+        List<Location> chronological = points.stream()
+                .sorted((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()))
+                .toList();
+        int n = chronological.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        long[] offsets = new long[n];
+        this.startTime = n > 0 ? chronological.get(0).getTimestamp() : null;
+        for (int i = 0; i < n; i++) {
+            Location location = chronological.get(i);
+            latitudes[i] = location.getLatitude();
+            longitudes[i] = location.getLongitude();
+            offsets[i] = Duration.between(startTime, location.getTimestamp()).getSeconds();
+        }
+        this.count = n;
+        this.precision = PRECISION;
+        this.polyline = PolylineEncoder.encodeCoordinates(latitudes, longitudes, PRECISION);
+        this.timeOffsets = PolylineEncoder.encodeDeltas(offsets);
+    }
+    
+    // Getters and Setters
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    
+    public int getPrecision() { return precision; }
+    public void setPrecision(int precision) { this.precision = precision; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public String getPolyline() { return polyline; }
+    public void setPolyline(String polyline) { this.polyline = polyline; }
+    
+    public String getTimeOffsets() { return timeOffsets; }
+    public void setTimeOffsets(String timeOffsets) { this.timeOffsets = timeOffsets; }
+}
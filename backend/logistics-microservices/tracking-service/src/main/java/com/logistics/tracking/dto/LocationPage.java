@@ -0,0 +1,23 @@
+package com.logistics.tracking.dto;
+
+import com.logistics.tracking.model.Location;
+import java.util.List;
+
+public class LocationPage {
+    private List<Location> items;
+    private String nextCursor; // null quando não há mais páginas
+    
+    public LocationPage() {}
+    
+    public LocationPage(List<Location> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<Location> getItems() { return items; }
+    public void setItems(List<Location> items) { this.items = items; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,24 @@
+package com.logistics.tracking.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logistics.tracking.model.DeliveryTracking;
+
+/** Payload de delivery.completed. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeliveryCompletedEvent(
+        int version,
+        Long orderId,
+        Long driverId,
+        Long startTime,
+        Long actualArrival,
+        Double totalDistance) {
+
+    public static final int VERSION = 1;
+
+    public static DeliveryCompletedEvent from(DeliveryTracking tracking) {
+        return new DeliveryCompletedEvent(VERSION, tracking.getOrderId(), tracking.getDriverId(),
+                EventTimestamps.toEpochMillis(tracking.getStartTime()),
+                EventTimestamps.toEpochMillis(tracking.getActualArrival()),
+                tracking.getTotalDistance());
+    }
+}
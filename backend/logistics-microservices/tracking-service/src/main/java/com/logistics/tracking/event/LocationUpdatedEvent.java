@@ -0,0 +1,31 @@
+package com.logistics.tracking.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.logistics.tracking.model.Location;
+
+/**
+ * Payload de location.updated (conflacionado, LocationConflator) e location.updated.raw
+ * (um por ping aceito), o fluxo de maior volume: só posição, velocidade e rumo.
+ * locationId fica ausente quando o ping não foi gravado no histórico (dead-band).
+ * O endereço é preenchido depois, em segundo plano, e não faz parte do evento.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LocationUpdatedEvent(
+        int version,
+        Long locationId,
+        Long orderId,
+        Long driverId,
+        Double latitude,
+        Double longitude,
+        Double speed,
+        Double bearing,
+        Long timestamp) {
+
+    public static final int VERSION = 1;
+
+    public static LocationUpdatedEvent from(Location location) {
+        return new LocationUpdatedEvent(VERSION, location.getId(), location.getOrderId(), location.getDriverId(),
+                location.getLatitude(), location.getLongitude(), location.getSpeed(), location.getBearing(),
+                EventTimestamps.toEpochMillis(location.getTimestamp()));
+    }
+}
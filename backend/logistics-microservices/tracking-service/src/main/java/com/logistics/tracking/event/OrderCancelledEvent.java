@@ -0,0 +1,12 @@
+package com.logistics.tracking.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** Payload de order.cancelled publicado pelo orders-service (só os campos usados aqui). */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderCancelledEvent(
+        int version,
+        Long orderId,
+        Long driverId,
+        Long updatedAt) {
+}
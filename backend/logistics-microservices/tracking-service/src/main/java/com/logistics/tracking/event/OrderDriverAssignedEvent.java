@@ -0,0 +1,26 @@
+package com.logistics.tracking.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Payload de order.driver.assigned publicado pelo orders-service. O tipo vem do parâmetro
+ * do listener, não do cabeçalho __TypeId__ (que aponta para a classe do orders-service).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderDriverAssignedEvent(
+        int version,
+        Long orderId,
+        Long driverId,
+        String originAddress,
+        Double originLatitude,
+        Double originLongitude,
+        String destinationAddress,
+        Double destinationLatitude,
+        Double destinationLongitude,
+        Long assignedAt) {
+
+    public boolean hasCoordinates() {
+        return originLatitude != null && originLongitude != null
+                && destinationLatitude != null && destinationLongitude != null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.logistics.tracking.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Payload de order.route.calculated publicado pelo orders-service quando a rota de um pedido
+ * criado em modo assíncrono é gravada, possivelmente depois da atribuição do motorista.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderRouteCalculatedEvent(
+        int version,
+        Long orderId,
+        Long driverId,
+        Double originLatitude,
+        Double originLongitude,
+        Double destinationLatitude,
+        Double destinationLongitude,
+        Double distance,
+        Integer estimatedTime,
+        Long calculatedAt) {
+
+    public boolean hasCoordinates() {
+        return originLatitude != null && originLongitude != null
+                && destinationLatitude != null && destinationLongitude != null;
+    }
+}
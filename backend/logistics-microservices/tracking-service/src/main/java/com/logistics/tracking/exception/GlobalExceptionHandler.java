@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -23,6 +24,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Object> handleMethodValidationException(HandlerMethodValidationException ex) {
+        var errors = new java.util.ArrayList<String>();
+        ex.getAllErrors().forEach(error -> errors.add(error.getDefaultMessage()));
+        var body = new java.util.HashMap<String, Object>();
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Erro de validação");
+        body.put("details", errors);
+        body.put("timestamp", java.time.LocalDateTime.now());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
         var body = new java.util.HashMap<String, Object>();
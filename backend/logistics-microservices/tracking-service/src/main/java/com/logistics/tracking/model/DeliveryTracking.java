@@ -15,6 +15,8 @@ public class DeliveryTracking {
     private Long orderId;
     
     private Long driverId;
+    // Momento da atribuição no orders-service: atribuições antigas que chegam depois não sobrescrevem
+    private LocalDateTime assignedAt;
     
     @Enumerated(EnumType.STRING)
     private TrackingStatus status;
@@ -43,7 +45,7 @@ public class DeliveryTracking {
     private LocalDateTime createdAt;
     
     public enum TrackingStatus {
-        WAITING_PICKUP, IN_TRANSIT, NEAR_DESTINATION, DELIVERED, DELAYED
+        WAITING_PICKUP, IN_TRANSIT, NEAR_DESTINATION, DELIVERED, DELAYED, CANCELLED
     }
     
     // Constructors
@@ -63,6 +65,9 @@ public class DeliveryTracking {
     public Long getDriverId() { return driverId; }
     public void setDriverId(Long driverId) { this.driverId = driverId; }
     
+    public LocalDateTime getAssignedAt() { return assignedAt; }
+    public void setAssignedAt(LocalDateTime assignedAt) { this.assignedAt = assignedAt; }
+    
     public TrackingStatus getStatus() { return status; }
     public void setStatus(TrackingStatus status) { 
         this.status = status;
@@ -0,0 +1,23 @@
+package com.logistics.tracking.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "driver_last_position")
+public class DriverLastPosition extends LastPosition {
+    @Id
+    private Long driverId;
+    
+    private Long orderId;
+    
+    public Location toLocation() {
+        return toLocation(orderId, driverId);
+    }
+    
+    // Getters and Setters
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+    
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+}
@@ -0,0 +1,59 @@
+package com.logistics.tracking.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cópia da localização mais recente, mantida por upsert a cada ponto recebido.
+ * Evita ORDER BY timestamp DESC LIMIT 1 sobre todo o histórico de {@code locations}.
+ */
+@MappedSuperclass
+public abstract class LastPosition {
+    private Long locationId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private Double bearing;
+    private String address;
+    
+    @Column(name = "timestamp_location")
+    private LocalDateTime timestamp;
+    
+    private LocalDateTime updatedAt;
+    
+    protected Location toLocation(Long orderId, Long driverId) {
+        Location location = new Location(orderId, driverId, latitude, longitude);
+        location.setId(locationId);
+        location.setSpeed(speed);
+        location.setBearing(bearing);
+        location.setAddress(address);
+        location.setTimestamp(timestamp);
+        location.setCreatedAt(updatedAt);
+        return location;
+    }
+    
+    // Getters and Setters
+    public Long getLocationId() { return locationId; }
+    public void setLocationId(Long locationId) { this.locationId = locationId; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+    
+    public Double getBearing() { return bearing; }
+    public void setBearing(Double bearing) { this.bearing = bearing; }
+    
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+    
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
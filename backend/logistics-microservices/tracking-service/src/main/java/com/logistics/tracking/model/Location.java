@@ -1,5 +1,6 @@
 package com.logistics.tracking.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
@@ -7,8 +8,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "locations")
 public class Location {
+    // Sequência com alocação em blocos: IDENTITY impede o Hibernate de agrupar INSERTs em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
+    @SequenceGenerator(name = "locations_seq", sequenceName = "locations_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -50,6 +53,10 @@ public class Location {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
+    // Falso para pontos que o dead-band não gravou no histórico (id nulo)
+    @JsonProperty(value = "persisted", access = JsonProperty.Access.READ_ONLY)
+    public boolean isPersisted() { return id != null; }
+    
     public Long getOrderId() { return orderId; }
     public void setOrderId(Long orderId) { this.orderId = orderId; }
     
@@ -0,0 +1,23 @@
+package com.logistics.tracking.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "order_last_position")
+public class OrderLastPosition extends LastPosition {
+    @Id
+    private Long orderId;
+    
+    private Long driverId;
+    
+    public Location toLocation() {
+        return toLocation(orderId, driverId);
+    }
+    
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    
+    public Long getDriverId() { return driverId; }
+    public void setDriverId(Long driverId) { this.driverId = driverId; }
+}
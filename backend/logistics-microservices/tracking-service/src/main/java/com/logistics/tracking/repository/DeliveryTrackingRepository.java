@@ -2,14 +2,35 @@ package com.logistics.tracking.repository;
 
 import com.logistics.tracking.model.DeliveryTracking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DeliveryTrackingRepository extends JpaRepository<DeliveryTracking, Long> {
     Optional<DeliveryTracking> findByOrderId(Long orderId);
+    List<DeliveryTracking> findByOrderIdIn(Collection<Long> orderIds);
     List<DeliveryTracking> findByDriverId(Long driverId);
     List<DeliveryTracking> findByStatus(DeliveryTracking.TrackingStatus status);
+    
+    // Ignora resultados atrasados: só grava se a posição atual ainda for a mesma
+    @Modifying
+    @Transactional
+    @Query("""
+        UPDATE DeliveryTracking t SET t.currentAddress = :address
+        WHERE t.orderId = :orderId
+        AND t.currentLatitude = :latitude AND t.currentLongitude = :longitude
+        """)
+    int updateCurrentAddress(
+            @Param("orderId") Long orderId,
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude,
+            @Param("address") String address
+    );
 }
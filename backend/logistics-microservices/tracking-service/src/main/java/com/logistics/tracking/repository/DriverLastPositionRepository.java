@@ -0,0 +1,96 @@
+package com.logistics.tracking.repository;
+
+import com.logistics.tracking.model.DriverLastPosition;
+import com.logistics.tracking.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DriverLastPositionRepository extends JpaRepository<DriverLastPosition, Long> {
+    List<DriverLastPosition> findByTimestampAfter(LocalDateTime since);
+    
+    // Upsert pela chave; pontos fora de ordem (timestamp mais antigo) não sobrescrevem a posição atual.
+    // O endereço volta a NULL e é preenchido depois pelo AddressEnrichmentService; pontos não
+    // gravados pela banda morta (id nulo) não são enriquecidos e mantêm o endereço anterior.
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO driver_last_position (driver_id, order_id, location_id, latitude, longitude,
+            speed, bearing, address, timestamp_location, updated_at)
+        VALUES (:#{#location.driverId}, :#{#location.orderId}, :#{#location.id},
+                :#{#location.latitude}, :#{#location.longitude},
+                CAST(:#{#location.speed} AS double precision), CAST(:#{#location.bearing} AS double precision),
+                NULL, :#{#location.timestamp}, now())
+        ON CONFLICT (driver_id) DO UPDATE SET
+            order_id = EXCLUDED.order_id,
+            location_id = EXCLUDED.location_id,
+            latitude = EXCLUDED.latitude,
+            longitude = EXCLUDED.longitude,
+            speed = EXCLUDED.speed,
+            bearing = EXCLUDED.bearing,
+            address = CASE WHEN EXCLUDED.location_id IS NULL THEN driver_last_position.address END,
+            timestamp_location = EXCLUDED.timestamp_location,
+            updated_at = EXCLUDED.updated_at
+        WHERE driver_last_position.timestamp_location <= EXCLUDED.timestamp_location
+        """, nativeQuery = true)
+    int upsert(@Param("location") Location location);
+    
+    // Entregas próximas a partir da última posição de cada motorista (uma linha por motorista):
+    // o filtro de distância vale para onde o motorista está agora, como no modo memory.
+    // A caixa lat/lon usa o índice (latitude, longitude) e o Haversine só roda para os candidatos dentro dela
+    @Query(value = """
+        SELECT p.* FROM driver_last_position p
+        WHERE p.latitude BETWEEN :minLatitude AND :maxLatitude
+        AND p.longitude BETWEEN :minLongitude AND :maxLongitude
+        AND p.timestamp_location >= :since
+        AND (6371 * acos(LEAST(1.0, cos(radians(:latitude)) * cos(radians(p.latitude)) *
+             cos(radians(p.longitude) - radians(:longitude)) +
+             sin(radians(:latitude)) * sin(radians(p.latitude))))) <= :radiusKm
+        ORDER BY (6371 * acos(LEAST(1.0, cos(radians(:latitude)) * cos(radians(p.latitude)) *
+                  cos(radians(p.longitude) - radians(:longitude)) +
+                  sin(radians(:latitude)) * sin(radians(p.latitude)))))
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<DriverLastPosition> findNearby(
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude,
+            @Param("radiusKm") Double radiusKm,
+            @Param("minLatitude") Double minLatitude,
+            @Param("maxLatitude") Double maxLatitude,
+            @Param("minLongitude") Double minLongitude,
+            @Param("maxLongitude") Double maxLongitude,
+            @Param("since") LocalDateTime since,
+            @Param("limit") Integer limit
+    );
+    
+    // Mesma consulta com PostGIS: o índice GiST de db/locations-postgis.sql é sobre esta mesma expressão
+    @Query(value = """
+        SELECT p.* FROM driver_last_position p
+        WHERE ST_DWithin(ST_SetSRID(ST_MakePoint(p.longitude, p.latitude), 4326)::geography,
+                         ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :radiusKm * 1000)
+        AND p.timestamp_location >= :since
+        ORDER BY ST_Distance(ST_SetSRID(ST_MakePoint(p.longitude, p.latitude), 4326)::geography,
+                             ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography)
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<DriverLastPosition> findNearbyPostgis(
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude,
+            @Param("radiusKm") Double radiusKm,
+            @Param("since") LocalDateTime since,
+            @Param("limit") Integer limit
+    );
+    
+    // Só grava se a última posição ainda for a deste ponto
+    @Modifying
+    @Transactional
+    @Query("UPDATE DriverLastPosition p SET p.address = :address WHERE p.locationId = :locationId")
+    int updateAddress(@Param("locationId") Long locationId, @Param("address") String address);
+}
@@ -1,25 +1,69 @@
 package com.logistics.tracking.repository;
 
 import com.logistics.tracking.model.Location;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Long> {
+    String FETCH_SIZE = "500";
+    
     List<Location> findByOrderIdOrderByTimestampDesc(Long orderId);
     List<Location> findByDriverIdOrderByTimestampDesc(Long driverId);
     
-    @Query("SELECT l FROM Location l WHERE l.orderId = :orderId ORDER BY l.timestamp DESC LIMIT 1")
-    Optional<Location> findLatestLocationByOrderId(@Param("orderId") Long orderId);
+    // Paginação por cursor (keyset): a próxima página começa depois do último (timestamp, id) entregue
+    List<Location> findByOrderIdOrderByTimestampDescIdDesc(Long orderId, Pageable pageable);
     
-    @Query("SELECT l FROM Location l WHERE l.driverId = :driverId ORDER BY l.timestamp DESC LIMIT 1")
-    Optional<Location> findLatestLocationByDriverId(@Param("driverId") Long driverId);
+    @Query("""
+        SELECT l FROM Location l WHERE l.orderId = :orderId
+        AND (l.timestamp < :timestamp OR (l.timestamp = :timestamp AND l.id < :id))
+        ORDER BY l.timestamp DESC, l.id DESC
+        """)
+    List<Location> findByOrderIdBefore(
+            @Param("orderId") Long orderId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+    
+    List<Location> findByDriverIdOrderByTimestampDescIdDesc(Long driverId, Pageable pageable);
+    
+    @Query("""
+        SELECT l FROM Location l WHERE l.driverId = :driverId
+        AND (l.timestamp < :timestamp OR (l.timestamp = :timestamp AND l.id < :id))
+        ORDER BY l.timestamp DESC, l.id DESC
+        """)
+    List<Location> findByDriverIdBefore(
+            @Param("driverId") Long driverId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+    
+    // Leitura em streaming: o driver busca FETCH_SIZE linhas por vez em vez do resultado inteiro
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Location> streamByOrderIdOrderByTimestampDescIdDesc(Long orderId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Location> streamByDriverIdOrderByTimestampDescIdDesc(Long driverId);
     
     @Query("SELECT l FROM Location l WHERE l.orderId = :orderId AND l.timestamp BETWEEN :startTime AND :endTime ORDER BY l.timestamp")
     List<Location> findLocationHistoryByOrderAndTimeRange(
@@ -28,19 +72,9 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
             @Param("endTime") LocalDateTime endTime
     );
     
-    // Função para encontrar entregas próximas (usando fórmula de Haversine simplificada)
-    @Query(value = """
-        SELECT l.* FROM locations l 
-        WHERE (6371 * acos(cos(radians(:latitude)) * cos(radians(l.latitude)) * 
-               cos(radians(l.longitude) - radians(:longitude)) + 
-               sin(radians(:latitude)) * sin(radians(l.latitude)))) <= :radiusKm
-        AND l.timestamp_location >= :since
-        ORDER BY l.timestamp_location DESC
-        """, nativeQuery = true)
-    List<Location> findNearbyLocations(
-            @Param("latitude") Double latitude,
-            @Param("longitude") Double longitude,
-            @Param("radiusKm") Double radiusKm,
-            @Param("since") LocalDateTime since
-    );
+    @Modifying
+    @Transactional
+    // O timestamp permite ao PostgreSQL tocar só a partição do dia do ponto
+    @Query("UPDATE Location l SET l.address = :address WHERE l.id = :id AND l.timestamp = :timestamp")
+    int updateAddress(@Param("id") Long id, @Param("timestamp") LocalDateTime timestamp, @Param("address") String address);
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.logistics.tracking.repository;
+
+import com.logistics.tracking.model.OrderLastPosition;
+import com.logistics.tracking.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OrderLastPositionRepository extends JpaRepository<OrderLastPosition, Long> {
+    // Upsert pela chave; pontos fora de ordem (timestamp mais antigo) não sobrescrevem a posição atual.
+    // O endereço volta a NULL e é preenchido depois pelo AddressEnrichmentService; pontos não
+    // gravados pela banda morta (id nulo) não são enriquecidos e mantêm o endereço anterior.
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO order_last_position (order_id, driver_id, location_id, latitude, longitude,
+            speed, bearing, address, timestamp_location, updated_at)
+        VALUES (:#{#location.orderId}, :#{#location.driverId}, :#{#location.id},
+                :#{#location.latitude}, :#{#location.longitude},
+                CAST(:#{#location.speed} AS double precision), CAST(:#{#location.bearing} AS double precision),
+                NULL, :#{#location.timestamp}, now())
+        ON CONFLICT (order_id) DO UPDATE SET
+            driver_id = EXCLUDED.driver_id,
+            location_id = EXCLUDED.location_id,
+            latitude = EXCLUDED.latitude,
+            longitude = EXCLUDED.longitude,
+            speed = EXCLUDED.speed,
+            bearing = EXCLUDED.bearing,
+            address = CASE WHEN EXCLUDED.location_id IS NULL THEN order_last_position.address END,
+            timestamp_location = EXCLUDED.timestamp_location,
+            updated_at = EXCLUDED.updated_at
+        WHERE order_last_position.timestamp_location <= EXCLUDED.timestamp_location
+        """, nativeQuery = true)
+    int upsert(@Param("location") Location location);
+    
+    // Só grava se a última posição ainda for a deste ponto
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderLastPosition p SET p.address = :address WHERE p.locationId = :locationId")
+    int updateAddress(@Param("locationId") Long locationId, @Param("address") String address);
+}
@@ -0,0 +1,132 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.Location;
+import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import com.logistics.tracking.repository.DriverLastPositionRepository;
+import com.logistics.tracking.repository.LocationRepository;
+import com.logistics.tracking.repository.OrderLastPositionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estágio de enriquecimento assíncrono: resolve o endereço (reverse geocoding)
+ * fora do caminho da requisição e preenche depois {@code Location.address}
+ * e {@code DeliveryTracking.currentAddress}.
+ */
+@Service
+public class AddressEnrichmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressEnrichmentService.class);
+
+    private final GeoService geoService;
+    private final LocationRepository locationRepository;
+    private final DeliveryTrackingRepository deliveryTrackingRepository;
+    private final DriverLastPositionRepository driverLastPositionRepository;
+    private final OrderLastPositionRepository orderLastPositionRepository;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+
+    public AddressEnrichmentService(GeoService geoService,
+                                    LocationRepository locationRepository,
+                                    DeliveryTrackingRepository deliveryTrackingRepository,
+                                    DriverLastPositionRepository driverLastPositionRepository,
+                                    OrderLastPositionRepository orderLastPositionRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${tracking.enrichment.workers:2}") int workers,
+                                    @Value("${tracking.enrichment.queue-capacity:10000}") int queueCapacity) {
+        this.geoService = geoService;
+        this.locationRepository = locationRepository;
+        this.deliveryTrackingRepository = deliveryTrackingRepository;
+        this.driverLastPositionRepository = driverLastPositionRepository;
+        this.orderLastPositionRepository = orderLastPositionRepository;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Fila limitada: se encher, o ponto é descartado (fica sem endereço) em vez de bloquear a requisição
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "address-enrichment-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("tracking.enrichment.queue.depth", executor, e -> e.getQueue().size())
+                .description("Localizações aguardando reverse geocoding")
+                .register(meterRegistry);
+        Gauge.builder("tracking.enrichment.queue.remaining", executor, e -> e.getQueue().remainingCapacity())
+                .description("Capacidade livre da fila de enriquecimento")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("tracking.enrichment.dropped")
+                .description("Localizações descartadas por fila cheia")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tracking.enrichment.failed")
+                .description("Falhas ao preencher o endereço")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("tracking.enrichment.lag")
+                .description("Tempo entre o recebimento da localização e o preenchimento do endereço")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(Location location) {
+        long enqueuedAt = System.nanoTime();
+        Long locationId = location.getId();
+        Long orderId = location.getOrderId();
+        LocalDateTime timestamp = location.getTimestamp();
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+
+        try {
+            executor.execute(() -> enrich(locationId, timestamp, orderId, latitude, longitude, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment();
+            logger.warn("Fila de enriquecimento cheia, localização {} ficará sem endereço", locationId);
+        }
+    }
+
+    private void enrich(Long locationId, LocalDateTime timestamp, Long orderId,
+                        double latitude, double longitude, long enqueuedAt) {
+        try {
+            // Uma única chamada ao Nominatim serve a localização e o tracking
+            String address = geoService.reverseGeocode(latitude, longitude);
+
+            locationRepository.updateAddress(locationId, timestamp, address);
+            driverLastPositionRepository.updateAddress(locationId, address);
+            orderLastPositionRepository.updateAddress(locationId, address);
+            // Só atualiza o tracking se a posição atual ainda for a deste ponto
+            deliveryTrackingRepository.updateCurrentAddress(orderId, latitude, longitude, address);
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.warn("Erro ao enriquecer localização {}: {}", locationId, e.getMessage());
+        } finally {
+            lagTimer.record(Duration.ofNanos(System.nanoTime() - enqueuedAt));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
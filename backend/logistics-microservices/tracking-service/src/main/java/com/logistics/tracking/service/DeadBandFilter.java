@@ -0,0 +1,128 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.Location;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtro de banda morta na ingestão. Para cada motorista guarda o último ponto gravado
+ * e projeta onde ele deveria estar agora (velocidade e direção do último ponto).
+ * Um ponto novo a menos de {@code toleranceMeters} dessa previsão não traz informação e não é gravado.
+ * Mesmo assim, um ponto é gravado pelo menos a cada {@code maxInterval}.
+ * O filtro só evita o INSERT em locations: últimas posições, tracking e eventos
+ * continuam sendo atualizados com todo ponto recebido.
+ * A referência só avança com {@link #onPersisted}, depois do commit, e nunca para um ponto mais antigo.
+ */
+@Component
+public class DeadBandFilter {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final GeoService geoService;
+    private final boolean enabled;
+    private final double toleranceMeters;
+    private final Duration maxInterval;
+
+    private final ConcurrentHashMap<Long, Location> lastPersistedByDriver = new ConcurrentHashMap<>();
+    private final Counter persistedCounter;
+    private final Counter skippedCounter;
+
+    public DeadBandFilter(GeoService geoService,
+                          MeterRegistry meterRegistry,
+                          @Value("${tracking.dead-band.enabled:true}") boolean enabled,
+                          @Value("${tracking.dead-band.tolerance-meters:20}") double toleranceMeters,
+                          @Value("${tracking.dead-band.max-interval:30s}") Duration maxInterval) {
+        this.geoService = geoService;
+        this.enabled = enabled;
+        this.toleranceMeters = toleranceMeters;
+        this.maxInterval = maxInterval;
+        this.persistedCounter = Counter.builder("tracking.dead-band.persisted")
+                .description("Pontos gravados após o filtro de banda morta")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("tracking.dead-band.skipped")
+                .description("Pontos descartados por estarem sobre a trajetória prevista")
+                .register(meterRegistry);
+    }
+
+    /** Decide se o ponto deve ser gravado; não altera a referência do motorista. */
+    public boolean shouldPersist(Location candidate) {
+        return shouldPersist(candidate, new HashMap<>());
+    }
+    
+    /**
+     * Variante para lotes: {@code batchReferences} guarda os pontos já aceitos no mesmo lote
+     * (ainda não commitados), que servem de referência para os pontos seguintes do motorista.
+     */
+    public boolean shouldPersist(Location candidate, Map<Long, Location> batchReferences) {
+        if (!enabled) {
+            return true;
+        }
+        Long driverId = candidate.getDriverId();
+        Location previous = batchReferences.getOrDefault(driverId, lastPersistedByDriver.get(driverId));
+        boolean persist = previous == null || isSignificant(previous, candidate);
+        if (persist && isNewer(candidate, previous)) {
+            batchReferences.put(driverId, candidate);
+        }
+        (persist ? persistedCounter : skippedCounter).increment();
+        return persist;
+    }
+    
+    /** Chamado depois do commit: os pontos gravados passam a ser a referência dos motoristas. */
+    public void onPersisted(Collection<Location> persisted) {
+        if (!enabled) {
+            return;
+        }
+        for (Location location : persisted) {
+            // Ponto fora de ordem vai para o histórico, mas não vira referência
+            lastPersistedByDriver.merge(location.getDriverId(), location,
+                    (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+        }
+    }
+    
+    private static boolean isNewer(Location candidate, Location current) {
+        return current == null || !candidate.getTimestamp().isBefore(current.getTimestamp());
+    }
+
+    private boolean isSignificant(Location previous, Location candidate) {
+        if (!previous.getOrderId().equals(candidate.getOrderId())) {
+            return true;
+        }
+        Duration elapsed = Duration.between(previous.getTimestamp(), candidate.getTimestamp());
+        // Fora de ordem ou intervalo máximo atingido: grava sempre
+        if (elapsed.isNegative() || elapsed.compareTo(maxInterval) >= 0) {
+            return true;
+        }
+        double[] predicted = predict(previous, elapsed);
+        double deviationMeters = geoService.calculateDistance(
+                predicted[0], predicted[1], candidate.getLatitude(), candidate.getLongitude()) * 1000;
+        return deviationMeters > toleranceMeters;
+    }
+
+    // Dead reckoning: desloca o último ponto pela velocidade (km/h) e direção (graus) informadas
+    private double[] predict(Location previous, Duration elapsed) {
+        double lat = previous.getLatitude();
+        double lon = previous.getLongitude();
+        if (previous.getSpeed() == null || previous.getBearing() == null || previous.getSpeed() <= 0) {
+            return new double[]{lat, lon};
+        }
+        double distanceKm = previous.getSpeed() * elapsed.toMillis() / 3_600_000.0;
+        double angular = distanceKm / EARTH_RADIUS_KM;
+        double bearing = Math.toRadians(previous.getBearing());
+        double lat1 = Math.toRadians(lat);
+        double lon1 = Math.toRadians(lon);
+
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angular)
+                + Math.cos(lat1) * Math.sin(angular) * Math.cos(bearing));
+        double lon2 = lon1 + Math.atan2(Math.sin(bearing) * Math.sin(angular) * Math.cos(lat1),
+                Math.cos(angular) - Math.sin(lat1) * Math.sin(lat2));
+        return new double[]{Math.toDegrees(lat2), Math.toDegrees(lon2)};
+    }
+}
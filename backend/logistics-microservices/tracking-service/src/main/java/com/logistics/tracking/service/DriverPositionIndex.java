@@ -0,0 +1,195 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.Location;
+import com.logistics.tracking.model.DriverLastPosition;
+import com.logistics.tracking.repository.DriverLastPositionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice espacial em memória com a última posição de cada motorista.
+ * Os motoristas ficam distribuídos numa grade de células lat/lon, de modo que
+ * uma busca por raio só examina as células que cobrem o raio pedido.
+ * Motoristas sem posição dentro de max-age saem do índice periodicamente.
+ */
+@Component
+public class DriverPositionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverPositionIndex.class);
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final GeoService geoService;
+    private final DriverLastPositionRepository driverLastPositionRepository;
+    private final double cellSizeDegrees;
+    private final long columns;
+    private final Duration maxAge;
+
+    private final ConcurrentHashMap<Long, Location> latestByDriver = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> driversByCell = new ConcurrentHashMap<>();
+
+    public DriverPositionIndex(GeoService geoService,
+                               DriverLastPositionRepository driverLastPositionRepository,
+                               @Value("${tracking.nearby.cell-size-degrees:0.05}") double cellSizeDegrees,
+                               @Value("${tracking.nearby.max-age:24h}") Duration maxAge) {
+        this.geoService = geoService;
+        this.driverLastPositionRepository = driverLastPositionRepository;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.columns = (long) Math.ceil(360 / cellSizeDegrees);
+        this.maxAge = maxAge;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minus(maxAge);
+        List<DriverLastPosition> latest = driverLastPositionRepository.findByTimestampAfter(since);
+        latest.forEach(position -> update(position.toLocation()));
+        logger.info("Índice de posições reconstruído com {} motoristas", latestByDriver.size());
+    }
+
+    public void update(Location location) {
+        Long driverId = location.getDriverId();
+        latestByDriver.compute(driverId, (id, previous) -> {
+            // Pontos fora de ordem (ex.: lote offline) não substituem uma posição mais nova
+            if (previous != null && previous.getTimestamp().isAfter(location.getTimestamp())) {
+                return previous;
+            }
+            long newCell = cellKey(location.getLatitude(), location.getLongitude());
+            if (previous != null) {
+                long oldCell = cellKey(previous.getLatitude(), previous.getLongitude());
+                if (oldCell != newCell) {
+                    removeFromCell(oldCell, id);
+                }
+            }
+            driversByCell.compute(newCell, (cell, drivers) -> {
+                Set<Long> set = drivers != null ? drivers : ConcurrentHashMap.newKeySet();
+                set.add(id);
+                return set;
+            });
+            return location;
+        });
+    }
+
+    // Sem isso, todo motorista que já enviou posição ficaria no índice e seria varrido nas buscas
+    @Scheduled(fixedDelayString = "${tracking.nearby.evict-interval:PT1M}")
+    public int evictStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        int evicted = 0;
+        for (Long driverId : latestByDriver.keySet()) {
+            boolean[] removed = {false};
+            latestByDriver.computeIfPresent(driverId, (id, location) -> {
+                if (!location.getTimestamp().isBefore(cutoff)) {
+                    return location;
+                }
+                removeFromCell(cellKey(location.getLatitude(), location.getLongitude()), id);
+                removed[0] = true;
+                return null;
+            });
+            if (removed[0]) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("{} motoristas sem posição recente removidos do índice", evicted);
+        }
+        return evicted;
+    }
+
+    public List<Location> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        List<Candidate> candidates = collectWithinRadius(latitude, longitude, radiusKm, cutoff);
+        candidates.sort(Comparator.comparingDouble(Candidate::distanceKm));
+        return candidates.stream().map(Candidate::location).toList();
+    }
+
+    /**
+     * k motoristas mais próximos dentro de {@code maxRadiusKm}. O raio de busca
+     * começa em uma célula e dobra até encontrar k resultados ou atingir o limite.
+     */
+    public List<Location> findNearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        double radiusKm = Math.min(cellSizeDegrees * KM_PER_DEGREE, maxRadiusKm);
+        List<Candidate> candidates;
+        while (true) {
+            candidates = collectWithinRadius(latitude, longitude, radiusKm, cutoff);
+            if (candidates.size() >= k || radiusKm >= maxRadiusKm) {
+                break;
+            }
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::distanceKm));
+        return candidates.stream().limit(k).map(Candidate::location).toList();
+    }
+
+    public int size() {
+        return latestByDriver.size();
+    }
+
+    private List<Candidate> collectWithinRadius(double latitude, double longitude,
+                                                double radiusKm, LocalDateTime cutoff) {
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double deltaLon = Math.min(radiusKm / (KM_PER_DEGREE * cosLat), 180);
+
+        long minRow = row(Math.max(latitude - deltaLat, -90));
+        long maxRow = row(Math.min(latitude + deltaLat, 90));
+        long minCol = column(longitude - deltaLon);
+        long colSpan = Math.min((long) Math.ceil(2 * deltaLon / cellSizeDegrees) + 1, columns);
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (long r = minRow; r <= maxRow; r++) {
+            for (long c = 0; c < colSpan; c++) {
+                long cell = r * columns + Math.floorMod(minCol + c, columns);
+                Set<Long> drivers = driversByCell.get(cell);
+                if (drivers == null) {
+                    continue;
+                }
+                for (Long driverId : drivers) {
+                    Location location = latestByDriver.get(driverId);
+                    if (location == null || location.getTimestamp().isBefore(cutoff)) {
+                        continue;
+                    }
+                    double distance = geoService.calculateDistance(
+                            latitude, longitude, location.getLatitude(), location.getLongitude());
+                    if (distance <= radiusKm) {
+                        candidates.add(new Candidate(location, distance));
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void removeFromCell(long cell, Long driverId) {
+        driversByCell.computeIfPresent(cell, (key, drivers) -> {
+            drivers.remove(driverId);
+            return drivers.isEmpty() ? null : drivers;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return row(latitude) * columns + column(longitude);
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellSizeDegrees);
+    }
+
+    private long column(double longitude) {
+        return Math.floorMod((long) Math.floor((longitude + 180) / cellSizeDegrees), columns);
+    }
+
+    private record Candidate(Location location, double distanceKm) {}
+}
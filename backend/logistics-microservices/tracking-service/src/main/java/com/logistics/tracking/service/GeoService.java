@@ -1,11 +1,19 @@
 package com.logistics.tracking.service;
 
+import com.logistics.tracking.util.GeoHash;
+import com.logistics.tracking.util.LruTtlCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
 
 @Service
 public class GeoService {
@@ -13,9 +21,29 @@ public class GeoService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
-    public GeoService() {
+    // Cache de endereços por célula geohash: pings consecutivos caem quase sempre na mesma célula
+    private final LruTtlCache<String, String> addressCache;
+    private final int cachePrecision;
+    
+    public GeoService(MeterRegistry meterRegistry,
+                      @Value("${tracking.geocode-cache.max-size:50000}") int cacheMaxSize,
+                      @Value("${tracking.geocode-cache.ttl:6h}") Duration cacheTtl,
+                      @Value("${tracking.geocode-cache.geohash-precision:7}") int cachePrecision) {
         this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
+        this.addressCache = new LruTtlCache<>(cacheMaxSize, cacheTtl.toMillis());
+        this.cachePrecision = cachePrecision;
+        
+        FunctionCounter.builder("tracking.geocode.cache.hits", addressCache, LruTtlCache::getHits)
+                .register(meterRegistry);
+        FunctionCounter.builder("tracking.geocode.cache.misses", addressCache, LruTtlCache::getMisses)
+                .register(meterRegistry);
+        FunctionCounter.builder("tracking.geocode.cache.evictions", addressCache, LruTtlCache::getEvictions)
+                .register(meterRegistry);
+        FunctionCounter.builder("tracking.geocode.cache.expirations", addressCache, LruTtlCache::getExpirations)
+                .register(meterRegistry);
+        Gauge.builder("tracking.geocode.cache.size", addressCache, LruTtlCache::size)
+                .register(meterRegistry);
     }
     
     public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
@@ -37,6 +65,12 @@ public class GeoService {
     @CircuitBreaker(name = "nominatimReverse", fallbackMethod = "reverseGeocodeFallback")
     @Retry(name = "nominatimReverse")
     public String reverseGeocode(double latitude, double longitude) {
+        String cellKey = GeoHash.encode(latitude, longitude, cachePrecision);
+        String cached = addressCache.get(cellKey);
+        if (cached != null) {
+            return cached;
+        }
+        
         try {
             String nominatimUrl = String.format(
                 "https://nominatim.openstreetmap.org/reverse?format=json&lat=%f&lon=%f&zoom=18&addressdetails=1",
@@ -47,7 +81,10 @@ public class GeoService {
             JsonNode root = objectMapper.readTree(response);
             
             if (root.has("display_name")) {
-                return root.get("display_name").asText();
+                String address = root.get("display_name").asText();
+                // Apenas respostas reais entram no cache; fallbacks de coordenadas não
+                addressCache.put(cellKey, address);
+                return address;
             }
         } catch (Exception e) {
             // Em caso de erro, retornar coordenadas
@@ -0,0 +1,149 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.event.LocationUpdatedEvent;
+import com.logistics.tracking.model.Location;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Publica location.updated conflacionado: guarda só a posição mais recente de cada motorista
+ * e publica a cada flush-interval (1 Hz por motorista com o padrão de 1 s). Consumidores que
+ * só querem a última posição (painéis, notificações) recebem no máximo uma mensagem por
+ * motorista por intervalo, qualquer que seja a taxa de pings. O fluxo completo continua em
+ * location.updated.raw, publicado pelo outbox.
+ *
+ * É best-effort: a posição ainda não publicada se perde se a instância cair, e a próxima
+ * posição do motorista a substitui.
+ */
+@Service
+public class LocationConflator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationConflator.class);
+
+    static final String EXCHANGE = "tracking.exchange";
+    static final String ROUTING_KEY = "location.updated";
+
+    // Última posição pendente por motorista; a fila guarda a ordem de chegada para que,
+    // com o orçamento de max-per-flush, nenhum motorista fique sempre para trás
+    private final ConcurrentHashMap<Long, LocationUpdatedEvent> pending = new ConcurrentHashMap<>();
+    private final Queue<Long> order = new ConcurrentLinkedQueue<>();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter messageConverter;
+    private final String contentType;
+    private final int maxPerFlush;
+
+    private final Counter offeredCounter;
+    private final Counter conflatedCounter;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public LocationConflator(RabbitTemplate rabbitTemplate,
+                             MessageConverter messageConverter,
+                             MeterRegistry meterRegistry,
+                             @Value("${events.content-type:application/json}") String contentType,
+                             @Value("${tracking.location-conflation.max-per-flush:10000}") int maxPerFlush) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.messageConverter = messageConverter;
+        this.contentType = contentType;
+        this.maxPerFlush = maxPerFlush;
+
+        this.offeredCounter = Counter.builder("tracking.location.conflation.offered")
+                .description("Posições recebidas para o fluxo conflacionado")
+                .register(meterRegistry);
+        this.conflatedCounter = Counter.builder("tracking.location.conflation.conflated")
+                .description("Posições substituídas por outra mais recente antes do flush")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("tracking.location.conflation.published")
+                .description("Mensagens publicadas em location.updated")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("tracking.location.conflation.failed")
+                .description("Flushes que falharam ao publicar")
+                .register(meterRegistry);
+        Gauge.builder("tracking.location.conflation.pending", pending, ConcurrentHashMap::size)
+                .description("Motoristas com posição aguardando o próximo flush")
+                .register(meterRegistry);
+    }
+
+    public void offer(Location location) {
+        if (location.getDriverId() == null) {
+            return;
+        }
+        offeredCounter.increment();
+        LocationUpdatedEvent event = LocationUpdatedEvent.from(location);
+        boolean[] added = {false};
+        pending.compute(location.getDriverId(), (driverId, current) -> {
+            if (current == null) {
+                added[0] = true;
+                return event;
+            }
+            conflatedCounter.increment();
+            // Ping atrasado (timestamp mais antigo) não substitui a posição pendente
+            return isOlder(event, current) ? current : event;
+        });
+        if (added[0]) {
+            order.add(location.getDriverId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.location-conflation.flush-interval:PT1S}")
+    public void flush() {
+        List<LocationUpdatedEvent> batch = drain(maxPerFlush);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            // Um canal para o lote inteiro; sem esperar confirmação, a próxima posição substitui a perdida
+            rabbitTemplate.invoke(operations -> {
+                for (LocationUpdatedEvent event : batch) {
+                    operations.send(EXCHANGE, ROUTING_KEY, toMessage(event));
+                }
+                return null;
+            });
+            publishedCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.warn("Falha ao publicar {} posições conflacionadas: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // Até limit motoristas, na ordem em que ficaram pendentes; os demais ficam para o próximo flush
+    List<LocationUpdatedEvent> drain(int limit) {
+        List<LocationUpdatedEvent> batch = new ArrayList<>();
+        Long driverId;
+        while (batch.size() < limit && (driverId = order.poll()) != null) {
+            LocationUpdatedEvent event = pending.remove(driverId);
+            if (event != null) {
+                batch.add(event);
+            }
+        }
+        return batch;
+    }
+
+    private Message toMessage(LocationUpdatedEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        return messageConverter.toMessage(event, properties);
+    }
+
+    private static boolean isOlder(LocationUpdatedEvent candidate, LocationUpdatedEvent current) {
+        return candidate.timestamp() != null && current.timestamp() != null
+                && candidate.timestamp() < current.timestamp();
+    }
+}
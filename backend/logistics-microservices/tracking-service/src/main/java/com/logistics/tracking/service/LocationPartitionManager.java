@@ -0,0 +1,201 @@
+package com.logistics.tracking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantém as partições diárias de {@code locations}: cria as dos próximos dias
+ * e remove (DROP) as que passaram do período de retenção.
+ * A conversão inicial da tabela é feita por db/locations-partitioning.sql.
+ *
+ * A partição default não é removida: sem ela, pontos fora da janela de partições
+ * (relógio do aparelho errado) seriam recusados. Ela guarda poucos pontos, então a
+ * retenção nela é por DELETE das linhas mais antigas que o corte.
+ *
+ * Se a default já tem pontos de um dia cuja partição ainda não existe, o CREATE ... PARTITION OF
+ * falharia; nesse caso a partição é criada solta, recebe as linhas do dia tiradas da default e
+ * só então é anexada, tudo numa transação.
+ */
+@Component
+public class LocationPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationPartitionManager.class);
+    private static final String PARTITION_PREFIX = "locations_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    static final String DEFAULT_PARTITION = "locations_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final Clock clock;
+
+    public LocationPartitionManager(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${tracking.partitions.days-ahead:7}") int daysAhead,
+                                    @Value("${tracking.partitions.retention-days:30}") int retentionDays) {
+        this(jdbcTemplate, transactionTemplate, daysAhead, retentionDays, Clock.systemDefaultZone());
+    }
+
+    LocationPartitionManager(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             int daysAhead,
+                             int retentionDays,
+                             Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tracking.partitions.cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            logger.warn("Tabela locations não está particionada; manutenção de partições ignorada");
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        List<String> partitions = listPartitions();
+        createPartitions(today, partitions);
+        dropExpiredPartitions(today, partitions);
+    }
+
+    private void createPartitions(LocalDate today, List<String> partitions) {
+        boolean hasDefault = partitions.contains(DEFAULT_PARTITION);
+        for (LocalDate day : partitionsToCreate(today, daysAhead)) {
+            String partition = partitionName(day);
+            if (partitions.contains(partition)) {
+                continue;
+            }
+            try {
+                if (hasDefault && defaultHasRows(day)) {
+                    moveFromDefault(day);
+                } else {
+                    jdbcTemplate.execute(String.format(
+                            "CREATE TABLE IF NOT EXISTS %s PARTITION OF locations FOR VALUES FROM ('%s') TO ('%s')",
+                            partition, day, day.plusDays(1)));
+                }
+            } catch (Exception e) {
+                logger.warn("Erro ao criar partição {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private boolean defaultHasRows(LocalDate day) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                        + " WHERE timestamp_location >= ? AND timestamp_location < ?)",
+                Boolean.class, Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        return Boolean.TRUE.equals(exists);
+    }
+
+    // O ATTACH valida que a default não tem mais linhas do intervalo; o lock segura inserts
+    // concorrentes nela até o commit (são poucos: só pontos fora da janela de partições)
+    private void moveFromDefault(LocalDate day) {
+        String partition = partitionName(day);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE locations INCLUDING DEFAULTS)");
+            int rows = jdbcTemplate.update("INSERT INTO " + partition + " SELECT * FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp_location >= ? AND timestamp_location < ?", from, to);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp_location >= ? AND timestamp_location < ?", from, to);
+            jdbcTemplate.execute(String.format(
+                    "ALTER TABLE locations ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, day, day.plusDays(1)));
+            return rows;
+        });
+        logger.info("Partição {} criada com {} pontos movidos de {}", partition, moved, DEFAULT_PARTITION);
+    }
+
+    private void dropExpiredPartitions(LocalDate today, List<String> partitions) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        for (String partition : expiredPartitions(partitions, cutoff)) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            logger.info("Partição {} removida (retenção de {} dias)", partition, retentionDays);
+        }
+        if (partitions.contains(DEFAULT_PARTITION)) {
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp_location < ?",
+                    Timestamp.valueOf(cutoff.atStartOfDay()));
+            if (deleted > 0) {
+                logger.info("{} pontos antigos removidos de {} (retenção de {} dias)",
+                        deleted, DEFAULT_PARTITION, retentionDays);
+            }
+        }
+    }
+
+    static List<LocalDate> partitionsToCreate(LocalDate today, int daysAhead) {
+        List<LocalDate> days = new ArrayList<>();
+        for (int i = 0; i <= daysAhead; i++) {
+            days.add(today.plusDays(i));
+        }
+        return days;
+    }
+
+    // A partição do dia D guarda [D, D+1): só sai quando o dia inteiro passou da retenção.
+    // Fora do padrão de nome (default, criadas à mão) nunca entra aqui
+    static List<String> expiredPartitions(List<String> partitions, LocalDate cutoff) {
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && day.isBefore(cutoff)) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM pg_class c
+                               JOIN pg_namespace n ON n.oid = c.relnamespace
+                               WHERE c.relname = 'locations' AND n.nspname = current_schema() AND c.relkind = 'p')
+                """, Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT child.relname FROM pg_inherits i
+                JOIN pg_class parent ON parent.oid = i.inhparent
+                JOIN pg_class child ON child.oid = i.inhrelid
+                JOIN pg_namespace n ON n.oid = parent.relnamespace
+                WHERE parent.relname = 'locations' AND n.nspname = current_schema()
+                """, String.class);
+    }
+
+    static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null; // locations_default e partições criadas à mão
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.event.OrderCancelledEvent;
+import com.logistics.tracking.event.OrderDriverAssignedEvent;
+import com.logistics.tracking.event.OrderRouteCalculatedEvent;
+import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Abre e encerra rastreamentos a partir dos eventos do orders-service, sem o cliente
+ * precisar chamar POST /api/tracking/create. As mensagens chegam em lotes
+ * (batchListenerContainerFactory) e cada lote vira um único upsert em delivery_tracking.
+ * Os upserts são idempotentes: um lote reentregue depois de uma falha não duplica nada.
+ * Depois do commit, o estado resultante vai para os clientes conectados por SSE.
+ */
+@Component
+public class OrderEventListener {
+
+    // Reatribuição atualiza motorista e coordenadas; rastreamento encerrado não é reaberto.
+    // A distância restante só é preenchida se ainda não houver (os pings já a atualizam).
+    // Com vários consumidores, duas atribuições do mesmo pedido podem ser gravadas fora de ordem:
+    // assigned_at garante que a mais antiga não sobrescreva a mais nova
+    private static final String UPSERT_ASSIGNED = """
+        INSERT INTO delivery_tracking (order_id, driver_id, assigned_at, status,
+            origin_address, origin_latitude, origin_longitude,
+            destination_address, destination_latitude, destination_longitude,
+            total_distance, remaining_distance, last_update, created_at)
+        VALUES (?, ?, ?, 'WAITING_PICKUP', ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (order_id) DO UPDATE SET
+            driver_id = EXCLUDED.driver_id,
+            assigned_at = EXCLUDED.assigned_at,
+            origin_address = COALESCE(EXCLUDED.origin_address, delivery_tracking.origin_address),
+            origin_latitude = COALESCE(EXCLUDED.origin_latitude, delivery_tracking.origin_latitude),
+            origin_longitude = COALESCE(EXCLUDED.origin_longitude, delivery_tracking.origin_longitude),
+            destination_address = COALESCE(EXCLUDED.destination_address, delivery_tracking.destination_address),
+            destination_latitude = COALESCE(EXCLUDED.destination_latitude, delivery_tracking.destination_latitude),
+            destination_longitude = COALESCE(EXCLUDED.destination_longitude, delivery_tracking.destination_longitude),
+            total_distance = COALESCE(EXCLUDED.total_distance, delivery_tracking.total_distance),
+            remaining_distance = COALESCE(delivery_tracking.remaining_distance, EXCLUDED.remaining_distance),
+            last_update = EXCLUDED.last_update
+        WHERE delivery_tracking.status NOT IN ('DELIVERED', 'CANCELLED')
+        AND (delivery_tracking.assigned_at IS NULL OR delivery_tracking.assigned_at < EXCLUDED.assigned_at)
+        """;
+
+    private static final int[] UPSERT_ASSIGNED_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.TIMESTAMP,
+            Types.VARCHAR, Types.DOUBLE, Types.DOUBLE,
+            Types.VARCHAR, Types.DOUBLE, Types.DOUBLE,
+            Types.DOUBLE, Types.DOUBLE, Types.TIMESTAMP, Types.TIMESTAMP};
+
+    // As duas filas são consumidas em paralelo: o cancelamento pode chegar antes da atribuição.
+    // Por isso ele também insere (já CANCELLED), e a atribuição atrasada não reabre a linha
+    private static final String UPSERT_CANCELLED = """
+        INSERT INTO delivery_tracking (order_id, driver_id, status, last_update, created_at)
+        VALUES (?, ?, 'CANCELLED', ?, ?)
+        ON CONFLICT (order_id) DO UPDATE SET
+            status = 'CANCELLED',
+            last_update = EXCLUDED.last_update
+        WHERE delivery_tracking.status NOT IN ('DELIVERED', 'CANCELLED')
+        """;
+
+    private static final int[] UPSERT_CANCELLED_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP};
+
+    // Pedido assíncrono: a atribuição pode sair antes da rota, com coordenadas nulas. A rota
+    // preenche coordenadas e distâncias do rastreamento já aberto (ou o abre, se chegar antes
+    // da atribuição). assigned_at fica nulo para a atribuição ainda valer quando chegar
+    private static final String UPSERT_ROUTE = """
+        INSERT INTO delivery_tracking (order_id, driver_id, status,
+            origin_latitude, origin_longitude, destination_latitude, destination_longitude,
+            total_distance, remaining_distance, last_update, created_at)
+        VALUES (?, ?, 'WAITING_PICKUP', ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (order_id) DO UPDATE SET
+            origin_latitude = COALESCE(EXCLUDED.origin_latitude, delivery_tracking.origin_latitude),
+            origin_longitude = COALESCE(EXCLUDED.origin_longitude, delivery_tracking.origin_longitude),
+            destination_latitude = COALESCE(EXCLUDED.destination_latitude, delivery_tracking.destination_latitude),
+            destination_longitude = COALESCE(EXCLUDED.destination_longitude, delivery_tracking.destination_longitude),
+            total_distance = COALESCE(EXCLUDED.total_distance, delivery_tracking.total_distance),
+            remaining_distance = COALESCE(delivery_tracking.remaining_distance, EXCLUDED.remaining_distance),
+            last_update = EXCLUDED.last_update
+        WHERE delivery_tracking.status NOT IN ('DELIVERED', 'CANCELLED')
+        """;
+
+    private static final int[] UPSERT_ROUTE_TYPES = {
+            Types.BIGINT, Types.BIGINT,
+            Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE,
+            Types.DOUBLE, Types.DOUBLE, Types.TIMESTAMP, Types.TIMESTAMP};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GeoService geoService;
+    private final DeliveryTrackingRepository deliveryTrackingRepository;
+    private final TrackingStreamService trackingStreamService;
+
+    private final Counter assignedCounter;
+    private final Counter cancelledCounter;
+    private final Counter routeCounter;
+
+    public OrderEventListener(JdbcTemplate jdbcTemplate,
+                              GeoService geoService,
+                              DeliveryTrackingRepository deliveryTrackingRepository,
+                              TrackingStreamService trackingStreamService,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.geoService = geoService;
+        this.deliveryTrackingRepository = deliveryTrackingRepository;
+        this.trackingStreamService = trackingStreamService;
+        this.assignedCounter = Counter.builder("tracking.order-events.assigned")
+                .description("Rastreamentos abertos ou atualizados por order.driver.assigned")
+                .register(meterRegistry);
+        this.cancelledCounter = Counter.builder("tracking.order-events.cancelled")
+                .description("Rastreamentos encerrados por order.cancelled")
+                .register(meterRegistry);
+        this.routeCounter = Counter.builder("tracking.order-events.route-calculated")
+                .description("Rastreamentos completados por order.route.calculated")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    @RabbitListener(queues = "tracking.order.driver.assigned.queue", containerFactory = "batchListenerContainerFactory")
+    public void onDriverAssigned(List<OrderDriverAssignedEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderDriverAssignedEvent event : latestPerOrder(events, OrderDriverAssignedEvent::orderId)) {
+            Double distance = event.hasCoordinates()
+                    ? geoService.calculateDistance(event.originLatitude(), event.originLongitude(),
+                            event.destinationLatitude(), event.destinationLongitude())
+                    : null;
+            Timestamp assignedAt = event.assignedAt() != null ? new Timestamp(event.assignedAt()) : now;
+            rows.add(new Object[]{
+                    event.orderId(), event.driverId(), assignedAt,
+                    event.originAddress(), event.originLatitude(), event.originLongitude(),
+                    event.destinationAddress(), event.destinationLatitude(), event.destinationLongitude(),
+                    distance, distance, now, now});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ASSIGNED, rows, UPSERT_ASSIGNED_TYPES);
+            assignedCounter.increment(rows.size());
+            publish(rows);
+        }
+    }
+
+    @Transactional
+    @RabbitListener(queues = "tracking.order.cancelled.queue", containerFactory = "batchListenerContainerFactory")
+    public void onOrderCancelled(List<OrderCancelledEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderCancelledEvent event : latestPerOrder(events, OrderCancelledEvent::orderId)) {
+            // Pedido cancelado antes de ter motorista nunca teve rastreamento: nada a encerrar
+            if (event.driverId() != null) {
+                rows.add(new Object[]{event.orderId(), event.driverId(), now, now});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CANCELLED, rows, UPSERT_CANCELLED_TYPES);
+            cancelledCounter.increment(rows.size());
+            publish(rows);
+        }
+    }
+
+    @Transactional
+    @RabbitListener(queues = "tracking.order.route.calculated.queue", containerFactory = "batchListenerContainerFactory")
+    public void onRouteCalculated(List<OrderRouteCalculatedEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (OrderRouteCalculatedEvent event : latestPerOrder(events, OrderRouteCalculatedEvent::orderId)) {
+            // Sem motorista ainda não há rastreamento: a atribuição já sai com as coordenadas
+            if (event.driverId() == null || !event.hasCoordinates()) {
+                continue;
+            }
+            // Mesma medida da atribuição (linha reta), comparável com a distância restante dos pings
+            Double distance = geoService.calculateDistance(event.originLatitude(), event.originLongitude(),
+                    event.destinationLatitude(), event.destinationLongitude());
+            rows.add(new Object[]{
+                    event.orderId(), event.driverId(),
+                    event.originLatitude(), event.originLongitude(),
+                    event.destinationLatitude(), event.destinationLongitude(),
+                    distance, distance, now, now});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ROUTE, rows, UPSERT_ROUTE_TYPES);
+            routeCounter.increment(rows.size());
+            publish(rows);
+        }
+    }
+
+    // Relê as linhas do lote (uma consulta) e publica o estado gravado, não o do evento: a linha
+    // que o upsert ignorou (encerrada ou atribuição antiga) sai com a versão antiga e o SSE a descarta
+    private void publish(List<Object[]> rows) {
+        List<Long> orderIds = rows.stream().map(row -> (Long) row[0]).toList();
+        deliveryTrackingRepository.findByOrderIdIn(orderIds).forEach(trackingStreamService::publish);
+    }
+
+    /**
+     * Um evento por pedido, o último do lote (entre lotes, quem decide é o assigned_at).
+     * Com reWriteBatchedInserts o lote vira um único INSERT multi-linha, e o Postgres recusa
+     * um ON CONFLICT que atualize a mesma linha duas vezes.
+     * Em ordem de orderId: com vários consumidores, dois lotes com pedidos em comum travam as
+     * linhas na mesma ordem e um espera o outro, em vez de entrarem em deadlock.
+     */
+    static <T> Collection<T> latestPerOrder(List<T> events, Function<T, Long> orderId) {
+        Map<Long, T> latest = new TreeMap<>();
+        for (T event : events) {
+            Long id = orderId.apply(event);
+            if (id != null) {
+                latest.put(id, event);
+            }
+        }
+        return latest.values();
+    }
+}
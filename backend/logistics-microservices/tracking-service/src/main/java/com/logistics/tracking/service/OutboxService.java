@@ -0,0 +1,48 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.OutboxEvent;
+import com.logistics.tracking.repository.OutboxEventRepository;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Substitui o {@code rabbitTemplate.convertAndSend} feito na thread da requisição:
+ * o evento é serializado e gravado na transação corrente, e só é publicado depois do commit.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageConverter messageConverter;
+    private final String contentType;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         MessageConverter messageConverter,
+                         @Value("${events.content-type:application/json}") String contentType) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.messageConverter = messageConverter;
+        this.contentType = contentType;
+    }
+
+    // MANDATORY: fora de uma transação o evento poderia ser gravado sem a alteração que o originou
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String exchange, String routingKey, Object payload) {
+        MessageProperties properties = new MessageProperties();
+        // O ContentTypeDelegatingMessageConverter escolhe o codec por este content-type
+        properties.setContentType(contentType);
+        Message message = messageConverter.toMessage(payload, properties);
+
+        OutboxEvent event = new OutboxEvent();
+        event.setExchange(exchange);
+        event.setRoutingKey(routingKey);
+        event.setPayload(message.getBody());
+        event.setContentType(properties.getContentType());
+        event.setTypeId(properties.getHeader("__TypeId__"));
+        outboxEventRepository.save(event);
+    }
+}
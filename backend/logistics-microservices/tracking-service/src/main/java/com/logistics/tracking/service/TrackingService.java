@@ -1,18 +1,40 @@
 package com.logistics.tracking.service;
 
+import com.logistics.tracking.dto.LocationPage;
 import com.logistics.tracking.dto.LocationUpdateRequest;
 import com.logistics.tracking.dto.TrackingResponse;
+import com.logistics.tracking.event.DeliveryCompletedEvent;
+import com.logistics.tracking.event.LocationUpdatedEvent;
 import com.logistics.tracking.model.DeliveryTracking;
 import com.logistics.tracking.model.Location;
+import com.logistics.tracking.model.DriverLastPosition;
+import com.logistics.tracking.model.OrderLastPosition;
 import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import com.logistics.tracking.repository.DriverLastPositionRepository;
 import com.logistics.tracking.repository.LocationRepository;
+import com.logistics.tracking.repository.OrderLastPositionRepository;
+import com.logistics.tracking.util.BoundingBox;
+import com.logistics.tracking.util.HistoryCursor;
+import com.logistics.tracking.util.TrajectorySimplifier;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TrackingService {
@@ -23,14 +45,137 @@ public class TrackingService {
     @Autowired
     private DeliveryTrackingRepository deliveryTrackingRepository;
     
+    @Autowired
+    private DriverLastPositionRepository driverLastPositionRepository;
+    
+    @Autowired
+    private OrderLastPositionRepository orderLastPositionRepository;
+    
     @Autowired
     private GeoService geoService;
     
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private AddressEnrichmentService addressEnrichmentService;
+    
+    @Autowired
+    private DriverPositionIndex driverPositionIndex;
+    
+    @Autowired
+    private DeadBandFilter deadBandFilter;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private LocationConflator locationConflator;
+    
+    @Autowired
+    private TrackingStreamService trackingStreamService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // memory: índice em memória; bbox: banco com pré-filtro por caixa; postgis: banco com índice GiST
+    @Value("${tracking.nearby.mode:memory}")
+    private String nearbyMode;
+    
+    @Value("${tracking.nearby.max-age:24h}")
+    private Duration nearbyMaxAge;
+    
+    @Value("${tracking.max-future-skew:30s}")
+    private Duration maxFutureSkew;
     
     public Location updateLocation(LocationUpdateRequest request) {
-        // Salvar a localização
+        Location location = toLocation(request);
+        
+        // Ponto sobre a trajetória prevista não entra no histórico (retorna com id nulo),
+        // mas últimas posições, tracking e eventos são atualizados do mesmo jeito
+        boolean persist = deadBandFilter.shouldPersist(location);
+        
+        // Ponto, últimas posições, tracking e evento gravados numa única transação
+        Location savedLocation = transactionTemplate.execute(status -> {
+            Location saved = persist ? locationRepository.save(location) : location;
+            driverLastPositionRepository.upsert(saved);
+            orderLastPositionRepository.upsert(saved);
+            
+            // Atualizar tracking da entrega
+            updateDeliveryTracking(saved);
+            
+            // Fluxo completo (location.updated.raw): todo ping aceito, gravado ou não no histórico,
+            // publicado pelo OutboxRelay depois do commit
+            outboxService.enqueue("tracking.exchange", "location.updated.raw", LocationUpdatedEvent.from(saved));
+            return saved;
+        });
+        if (persist) {
+            deadBandFilter.onPersisted(List.of(savedLocation));
+        }
+        driverPositionIndex.update(savedLocation);
+        // location.updated sai conflacionado: só a última posição de cada motorista por intervalo
+        locationConflator.offer(savedLocation);
+        
+        // O endereço é resolvido depois, em segundo plano (AddressEnrichmentService), já com o ponto commitado
+        if (persist) {
+            addressEnrichmentService.enqueue(savedLocation);
+        }
+        
+        return savedLocation;
+    }
+    
+    public List<Location> updateLocations(List<LocationUpdateRequest> requests) {
+        List<Location> locations = new ArrayList<>(requests.size());
+        List<Location> toPersist = new ArrayList<>();
+        // Pontos aceitos no lote servem de referência para os seguintes do mesmo motorista
+        Map<Long, Location> batchReferences = new HashMap<>();
+        for (LocationUpdateRequest request : requests) {
+            Location location = toLocation(request);
+            locations.add(location);
+            if (deadBandFilter.shouldPersist(location, batchReferences)) {
+                toPersist.add(location);
+            }
+        }
+        
+        // Lote inteiro numa única transação; com jdbc.batch_size os INSERTs saem agrupados.
+        // saveAll preenche o id nas próprias instâncias; as não gravadas ficam com id nulo
+        transactionTemplate.executeWithoutResult(status -> {
+            locationRepository.saveAll(toPersist);
+            
+            // Tracking recalculado uma única vez por pedido, a partir do ponto mais recente do lote
+            Map<Long, Location> latestByOrder = new LinkedHashMap<>();
+            for (Location location : locations) {
+                latestByOrder.merge(location.getOrderId(), location,
+                        (current, candidate) -> candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate);
+            }
+            
+            for (Location latest : latestByOrder.values()) {
+                orderLastPositionRepository.upsert(latest);
+                updateDeliveryTracking(latest);
+            }
+            
+            Map<Long, Location> latestByDriver = new LinkedHashMap<>();
+            for (Location location : locations) {
+                latestByDriver.merge(location.getDriverId(), location,
+                        (current, candidate) -> candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate);
+            }
+            latestByDriver.values().forEach(driverLastPositionRepository::upsert);
+            
+            // location.updated.raw é o fluxo completo: um evento por ping aceito, na ordem do lote,
+            // inclusive os que o dead-band não grava. Só o location.updated (LocationConflator) é reduzido
+            for (Location location : locations) {
+                outboxService.enqueue("tracking.exchange", "location.updated.raw", LocationUpdatedEvent.from(location));
+            }
+        });
+        deadBandFilter.onPersisted(toPersist);
+        locations.forEach(driverPositionIndex::update);
+        locations.forEach(locationConflator::offer);
+        toPersist.forEach(addressEnrichmentService::enqueue);
+        
+        return locations;
+    }
+    
+    private Location toLocation(LocationUpdateRequest request) {
         Location location = new Location();
         location.setOrderId(request.getOrderId());
         location.setDriverId(request.getDriverId());
@@ -40,39 +185,35 @@ public class TrackingService {
         location.setBearing(request.getBearing());
         
         if (request.getTimestamp() != null) {
-            location.setTimestamp(request.getTimestamp());
+            location.setTimestamp(clampTimestamp(request.getTimestamp(), LocalDateTime.now(), maxFutureSkew));
         }
-        
-        // Fazer reverse geocoding para obter endereço
-        String address = geoService.reverseGeocode(request.getLatitude(), request.getLongitude());
-        location.setAddress(address);
-        
-        Location savedLocation = locationRepository.save(location);
-        
-        // Atualizar tracking da entrega
-        updateDeliveryTracking(request);
-        
-        // Publicar evento de localização atualizada
-        rabbitTemplate.convertAndSend("tracking.exchange", "location.updated", savedLocation);
-        
-        return savedLocation;
+        return location;
+    }
+    
+    // Relógio do aparelho adiantado: um ping "no futuro" passaria nos guardas de timestamp das
+    // últimas posições e do índice e travaria o motorista/pedido até o relógio real alcançá-lo.
+    // A posição é válida, só o horário não: vale o horário de recebimento
+    static LocalDateTime clampTimestamp(LocalDateTime timestamp, LocalDateTime now, Duration maxFutureSkew) {
+        return timestamp.isAfter(now.plus(maxFutureSkew)) ? now : timestamp;
     }
     
-    private void updateDeliveryTracking(LocationUpdateRequest request) {
-        Optional<DeliveryTracking> trackingOpt = deliveryTrackingRepository.findByOrderId(request.getOrderId());
+    private void updateDeliveryTracking(Location location) {
+        Optional<DeliveryTracking> trackingOpt = deliveryTrackingRepository.findByOrderId(location.getOrderId());
         
-        if (trackingOpt.isPresent()) {
+        // Pedido cancelado (order.cancelled) não volta a mudar de status por causa de um ping atrasado
+        if (trackingOpt.isPresent() && trackingOpt.get().getStatus() != DeliveryTracking.TrackingStatus.CANCELLED) {
             DeliveryTracking tracking = trackingOpt.get();
             
             // Atualizar posição atual
-            tracking.setCurrentLatitude(request.getLatitude());
-            tracking.setCurrentLongitude(request.getLongitude());
-            tracking.setCurrentAddress(geoService.reverseGeocode(request.getLatitude(), request.getLongitude()));
+            tracking.setCurrentLatitude(location.getLatitude());
+            tracking.setCurrentLongitude(location.getLongitude());
+            // lastUpdate também é a versão dos eventos SSE: muda a cada posição, não só com o status
+            tracking.setLastUpdate(LocalDateTime.now());
             
             // Calcular distância restante
             if (tracking.getDestinationLatitude() != null && tracking.getDestinationLongitude() != null) {
                 double remainingDistance = geoService.calculateDistance(
-                    request.getLatitude(), request.getLongitude(),
+                    location.getLatitude(), location.getLongitude(),
                     tracking.getDestinationLatitude(), tracking.getDestinationLongitude()
                 );
                 
@@ -80,7 +221,7 @@ public class TrackingService {
                 
                 // Verificar se está próximo do destino
                 if (geoService.isNearDestination(
-                    request.getLatitude(), request.getLongitude(),
+                    location.getLatitude(), location.getLongitude(),
                     tracking.getDestinationLatitude(), tracking.getDestinationLongitude(),
                     0.5 // 500 metros
                 )) {
@@ -91,14 +232,16 @@ public class TrackingService {
                 }
                 
                 // Estimar tempo de chegada baseado na velocidade
-                if (request.getSpeed() != null && request.getSpeed() > 0) {
-                    int estimatedMinutes = (int) ((remainingDistance / request.getSpeed()) * 60);
+                if (location.getSpeed() != null && location.getSpeed() > 0) {
+                    int estimatedMinutes = (int) ((remainingDistance / location.getSpeed()) * 60);
                     tracking.setEstimatedTimeMinutes(estimatedMinutes);
                     tracking.setEstimatedArrival(LocalDateTime.now().plusMinutes(estimatedMinutes));
                 }
             }
             
             deliveryTrackingRepository.save(tracking);
+            // Clientes conectados em /order/{orderId}/stream recebem a mudança depois do commit
+            trackingStreamService.publish(tracking);
         }
     }
     
@@ -107,38 +250,146 @@ public class TrackingService {
                 .map(TrackingResponse::new);
     }
     
-    public List<Location> getLocationHistory(Long orderId) {
-        return locationRepository.findByOrderIdOrderByTimestampDesc(orderId);
+    // toleranceMeters opcional: simplifica a trajetória (Douglas-Peucker) antes de responder
+    public List<Location> getLocationHistory(Long orderId, Double toleranceMeters) {
+        return simplify(locationRepository.findByOrderIdOrderByTimestampDesc(orderId), toleranceMeters);
+    }
+    
+    public List<Location> getDriverLocationHistory(Long driverId, Double toleranceMeters) {
+        return simplify(locationRepository.findByDriverIdOrderByTimestampDesc(driverId), toleranceMeters);
     }
     
-    public List<Location> getDriverLocationHistory(Long driverId) {
-        return locationRepository.findByDriverIdOrderByTimestampDesc(driverId);
+    private List<Location> simplify(List<Location> history, Double toleranceMeters) {
+        if (toleranceMeters == null) {
+            return history;
+        }
+        return TrajectorySimplifier.simplify(history, toleranceMeters);
     }
     
+    // Busca limit + 1 linhas: a linha extra só indica se existe uma próxima página
+    public LocationPage getLocationHistoryPage(Long orderId, String cursor, int limit, Double toleranceMeters) {
+        PageRequest page = PageRequest.ofSize(limit + 1);
+        List<Location> rows;
+        if (cursor == null) {
+            rows = locationRepository.findByOrderIdOrderByTimestampDescIdDesc(orderId, page);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = locationRepository.findByOrderIdBefore(orderId, after.timestamp(), after.id(), page);
+        }
+        return toPage(rows, limit, toleranceMeters);
+    }
+    
+    public LocationPage getDriverLocationHistoryPage(Long driverId, String cursor, int limit, Double toleranceMeters) {
+        PageRequest page = PageRequest.ofSize(limit + 1);
+        List<Location> rows;
+        if (cursor == null) {
+            rows = locationRepository.findByDriverIdOrderByTimestampDescIdDesc(driverId, page);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = locationRepository.findByDriverIdBefore(driverId, after.timestamp(), after.id(), page);
+        }
+        return toPage(rows, limit, toleranceMeters);
+    }
+    
+    // O cursor vem do último ponto lido, antes da simplificação (que sempre mantém as pontas)
+    private LocationPage toPage(List<Location> rows, int limit, Double toleranceMeters) {
+        if (rows.size() <= limit) {
+            return new LocationPage(simplify(rows, toleranceMeters), null);
+        }
+        List<Location> items = rows.subList(0, limit);
+        return new LocationPage(simplify(items, toleranceMeters), HistoryCursor.of(items.get(limit - 1)).encode());
+    }
+    
+    // O Stream precisa da transação aberta enquanto é consumido; cada linha é
+    // desanexada depois de escrita para o contexto de persistência não crescer
+    @Transactional(readOnly = true)
+    public void streamLocationHistory(Long orderId, Consumer<Location> consumer) {
+        try (Stream<Location> stream = locationRepository.streamByOrderIdOrderByTimestampDescIdDesc(orderId)) {
+            stream.forEach(location -> {
+                consumer.accept(location);
+                entityManager.detach(location);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamDriverLocationHistory(Long driverId, Consumer<Location> consumer) {
+        try (Stream<Location> stream = locationRepository.streamByDriverIdOrderByTimestampDescIdDesc(driverId)) {
+            stream.forEach(location -> {
+                consumer.accept(location);
+                entityManager.detach(location);
+            });
+        }
+    }
+    
+    // Leitura por chave primária em order_last_position / driver_last_position,
+    // independente do tamanho do histórico
     public Optional<Location> getCurrentLocation(Long orderId) {
-        return locationRepository.findLatestLocationByOrderId(orderId);
+        return orderLastPositionRepository.findById(orderId)
+                .map(OrderLastPosition::toLocation);
     }
     
     public Optional<Location> getCurrentDriverLocation(Long driverId) {
-        return locationRepository.findLatestLocationByDriverId(driverId);
+        return driverLastPositionRepository.findById(driverId)
+                .map(DriverLastPosition::toLocation);
     }
     
-    public List<Location> getNearbyDeliveries(double latitude, double longitude, double radiusKm) {
-        LocalDateTime since = LocalDateTime.now().minusHours(24); // Últimas 24 horas
-        return locationRepository.findNearbyLocations(latitude, longitude, radiusKm, since);
+    // Última posição de cada motorista nas últimas 24 horas; a origem depende de tracking.nearby.mode
+    public List<Location> getNearbyDeliveries(double latitude, double longitude, double radiusKm, Integer limit) {
+        boolean limited = limit != null && limit > 0;
+        LocalDateTime since = LocalDateTime.now().minus(nearbyMaxAge);
+        
+        switch (nearbyMode) {
+            case "bbox": {
+                BoundingBox box = BoundingBox.around(latitude, longitude, radiusKm);
+                return driverLastPositionRepository.findNearby(latitude, longitude, radiusKm,
+                        box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(),
+                        since, limited ? limit : Integer.MAX_VALUE)
+                        .stream().map(DriverLastPosition::toLocation).toList();
+            }
+            case "postgis":
+                return driverLastPositionRepository.findNearbyPostgis(latitude, longitude, radiusKm,
+                        since, limited ? limit : Integer.MAX_VALUE)
+                        .stream().map(DriverLastPosition::toLocation).toList();
+            default:
+                if (limited) {
+                    return driverPositionIndex.findNearest(latitude, longitude, limit, radiusKm);
+                }
+                return driverPositionIndex.findWithinRadius(latitude, longitude, radiusKm);
+        }
     }
     
     public DeliveryTracking createTracking(Long orderId, Long driverId, 
                                          String originAddress, String destinationAddress) {
+        return createTracking(orderId, driverId, originAddress, null, null, destinationAddress, null, null);
+    }
+    
+    // Coordenadas já geocodificadas pelo orders-service: sem elas não há distância restante nem ETA
+    public DeliveryTracking createTracking(Long orderId, Long driverId,
+                                         String originAddress, Double originLatitude, Double originLongitude,
+                                         String destinationAddress, Double destinationLatitude, Double destinationLongitude) {
         DeliveryTracking tracking = new DeliveryTracking();
         tracking.setOrderId(orderId);
         tracking.setDriverId(driverId);
         tracking.setOriginAddress(originAddress);
+        tracking.setOriginLatitude(originLatitude);
+        tracking.setOriginLongitude(originLongitude);
         tracking.setDestinationAddress(destinationAddress);
+        tracking.setDestinationLatitude(destinationLatitude);
+        tracking.setDestinationLongitude(destinationLongitude);
+        
+        if (originLatitude != null && originLongitude != null
+                && destinationLatitude != null && destinationLongitude != null) {
+            double distance = geoService.calculateDistance(
+                originLatitude, originLongitude, destinationLatitude, destinationLongitude);
+            tracking.setTotalDistance(distance);
+            tracking.setRemainingDistance(distance);
+        }
         
         return deliveryTrackingRepository.save(tracking);
     }
     
+    @Transactional
     public void markAsDelivered(Long orderId) {
         DeliveryTracking tracking = deliveryTrackingRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new RuntimeException("Tracking não encontrado"));
@@ -147,8 +398,9 @@ public class TrackingService {
         tracking.setActualArrival(LocalDateTime.now());
         
         deliveryTrackingRepository.save(tracking);
+        trackingStreamService.publish(tracking);
         
-        // Publicar evento de entrega concluída
-        rabbitTemplate.convertAndSend("tracking.exchange", "delivery.completed", tracking);
+        // Evento de entrega concluída
+        outboxService.enqueue("tracking.exchange", "delivery.completed", DeliveryCompletedEvent.from(tracking));
     }
 }
\ No newline at end of file
@@ -0,0 +1,451 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.dto.TrackingResponse;
+import com.logistics.tracking.model.DeliveryTracking;
+import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia por SSE as mudanças de rastreamento de um pedido, no lugar do polling em
+ * GET /order/{orderId} e /current. O cliente conectado a uma instância recebe mudanças
+ * feitas em qualquer outra: cada instância publica as suas no fanout tracking.stream.exchange
+ * e consome de uma fila anônima própria.
+ *
+ * Cada conexão ociosa é só um SseEmitter (sem thread presa). As mudanças são conflacionadas
+ * por pedido até o próximo flush, e o banco só é lido uma vez por conexão, no snapshot inicial.
+ * O id de cada evento é a versão (lastUpdate em epoch ms): com Last-Event-ID, a reconexão só
+ * recebe o snapshot se ele for mais novo que o último evento visto.
+ *
+ * O primeiro evento de cada conexão é o estado completo ('tracking'); os seguintes trazem só
+ * orderId, lastUpdate e os campos que mudaram desde o último enviado ('tracking-delta').
+ *
+ * As escritas nos emitters rodam num pool próprio (stream.writers): um cliente lento não
+ * segura o listener do Rabbit nem a thread do scheduler. Cada conexão tem no máximo uma
+ * escrita na fila, e o que chega enquanto ela espera é conflacionado nela; por isso a fila
+ * tem o tamanho do limite de conexões. Escrita recusada volta no tick seguinte, e a conexão
+ * cuja escrita demora mais que slow-write é encerrada (o cliente reconecta com Last-Event-ID).
+ *
+ * O heartbeat só vai para conexões sem escrita há heartbeat-interval, verificadas a cada
+ * tick; o primeiro de cada conexão é sorteado dentro do intervalo, para não saírem todos juntos.
+ */
+@Service
+public class TrackingStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingStreamService.class);
+
+    static final String EXCHANGE = "tracking.stream.exchange";
+    static final String EVENT_NAME = "tracking";
+    static final String DELTA_EVENT_NAME = "tracking-delta";
+
+    private final ConcurrentHashMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Última mudança de cada pedido ainda não publicada
+    private final ConcurrentHashMap<Long, TrackingResponse> pending = new ConcurrentHashMap<>();
+    // Conexões com escrita recusada por fila cheia, reagendadas no próximo tick
+    private final Queue<Subscription> retry = new ConcurrentLinkedQueue<>();
+
+    private final DeliveryTrackingRepository deliveryTrackingRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter messageConverter;
+    private final String contentType;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final long heartbeatNanos;
+    private final long slowWriteNanos;
+    private final Executor writer;
+
+    private final Counter publishedCounter;
+    private final Counter deliveredCounter;
+    private final Counter rejectedCounter;
+    private final Counter slowClosedCounter;
+
+    public TrackingStreamService(DeliveryTrackingRepository deliveryTrackingRepository,
+                                 RabbitTemplate rabbitTemplate,
+                                 MessageConverter messageConverter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${events.content-type:application/json}") String contentType,
+                                 @Value("${tracking.stream.timeout:30m}") Duration timeout,
+                                 @Value("${tracking.stream.reconnect-time:3s}") Duration reconnectTime,
+                                 @Value("${tracking.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                 @Value("${tracking.stream.slow-write:2s}") Duration slowWrite,
+                                 @Value("${tracking.stream.writers:32}") int writers,
+                                 @Value("${tracking.stream.queue-capacity:${server.tomcat.max-connections:8192}}") int queueCapacity) {
+        this(deliveryTrackingRepository, rabbitTemplate, messageConverter, meterRegistry,
+                contentType, timeout, reconnectTime, heartbeatInterval, slowWrite, writerPool(writers, queueCapacity));
+    }
+
+    TrackingStreamService(DeliveryTrackingRepository deliveryTrackingRepository,
+                          RabbitTemplate rabbitTemplate,
+                          MessageConverter messageConverter,
+                          MeterRegistry meterRegistry,
+                          String contentType,
+                          Duration timeout,
+                          Duration reconnectTime,
+                          Duration heartbeatInterval,
+                          Duration slowWrite,
+                          Executor writer) {
+        this.deliveryTrackingRepository = deliveryTrackingRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.messageConverter = messageConverter;
+        this.contentType = contentType;
+        this.timeoutMillis = timeout.toMillis();
+        this.reconnectMillis = reconnectTime.toMillis();
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.slowWriteNanos = slowWrite.toNanos();
+        this.writer = writer;
+
+        this.publishedCounter = Counter.builder("tracking.stream.published")
+                .description("Mudanças de rastreamento publicadas para as instâncias")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("tracking.stream.delivered")
+                .description("Eventos SSE enviados aos clientes")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("tracking.stream.rejected")
+                .description("Escritas SSE adiadas por fila de escrita cheia")
+                .register(meterRegistry);
+        this.slowClosedCounter = Counter.builder("tracking.stream.slow-closed")
+                .description("Conexões SSE encerradas por escrita lenta")
+                .register(meterRegistry);
+        Gauge.builder("tracking.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Conexões SSE abertas nesta instância")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre a assinatura de um pedido. O pedido ainda sem rastreamento não é erro: o primeiro
+     * evento chega quando o rastreamento for aberto e atualizado.
+     */
+    public SseEmitter subscribe(Long orderId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(orderId, emitter, lastEventId != null ? lastEventId : -1);
+        // Registrada antes do snapshot: uma mudança concorrente não se perde entre os dois
+        subscriptions.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+
+        deliveryTrackingRepository.findByOrderId(orderId)
+                .map(TrackingResponse::new)
+                .ifPresent(subscription::send);
+        return emitter;
+    }
+
+    /** Agenda a publicação do estado do rastreamento para depois do commit da transação corrente. */
+    public void publish(DeliveryTracking tracking) {
+        TrackingResponse response = new TrackingResponse(tracking);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.put(response.getOrderId(), response);
+                }
+            });
+        } else {
+            pending.put(response.getOrderId(), response);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.stream.flush-interval:PT1S}")
+    public void flush() {
+        List<TrackingResponse> batch = new ArrayList<>();
+        for (Long orderId : pending.keySet()) {
+            TrackingResponse response = pending.remove(orderId);
+            if (response != null) {
+                batch.add(response);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (TrackingResponse response : batch) {
+                    operations.send(EXCHANGE, "", toMessage(response));
+                }
+                return null;
+            });
+            publishedCounter.increment(batch.size());
+        } catch (Exception e) {
+            logger.warn("Falha ao publicar {} mudanças de rastreamento: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // Cada instância recebe todas as mudanças e entrega só aos clientes conectados a ela
+    @RabbitListener(queues = "#{trackingStreamQueue.name}")
+    public void onTrackingChanged(TrackingResponse response) {
+        Set<Subscription> subscribers = subscriptions.get(response.getOrderId());
+        if (subscribers != null) {
+            subscribers.forEach(subscription -> subscription.send(response));
+        }
+    }
+
+    // Heartbeat (comentário SSE) mantém a conexão viva em proxies e load balancers e detecta
+    // clientes que saíram; só vai para quem está sem escrita há heartbeat-interval
+    @Scheduled(fixedRateString = "${tracking.stream.tick:PT1S}")
+    public void tick() {
+        for (int i = retry.size(); i > 0; i--) {
+            Subscription subscription = retry.poll();
+            if (subscription == null) {
+                break;
+            }
+            subscription.retry();
+        }
+        long now = System.nanoTime();
+        subscriptions.values().forEach(subscribers ->
+                subscribers.forEach(subscription -> subscription.heartbeatIfIdle(now)));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer instanceof ExecutorService executor) {
+            executor.shutdown();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    // Fila cheia não bloqueia quem publica: a conexão fica com a escrita pendente até o próximo evento ou heartbeat
+    private static ThreadPoolExecutor writerPool(int writers, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                writers, writers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tracking-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Campos que mudaram de previous para current (null incluso), sempre com orderId e lastUpdate
+    static Map<String, Object> delta(TrackingResponse previous, TrackingResponse current) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("orderId", current.getOrderId());
+        putIfChanged(delta, "status", previous.getStatus(), current.getStatus());
+        putIfChanged(delta, "currentLatitude", previous.getCurrentLatitude(), current.getCurrentLatitude());
+        putIfChanged(delta, "currentLongitude", previous.getCurrentLongitude(), current.getCurrentLongitude());
+        putIfChanged(delta, "currentAddress", previous.getCurrentAddress(), current.getCurrentAddress());
+        putIfChanged(delta, "remainingDistance", previous.getRemainingDistance(), current.getRemainingDistance());
+        putIfChanged(delta, "estimatedTimeMinutes", previous.getEstimatedTimeMinutes(), current.getEstimatedTimeMinutes());
+        putIfChanged(delta, "estimatedArrival", previous.getEstimatedArrival(), current.getEstimatedArrival());
+        delta.put("lastUpdate", current.getLastUpdate());
+        return delta;
+    }
+
+    private static void putIfChanged(Map<String, Object> delta, String field, Object previous, Object current) {
+        if (!Objects.equals(previous, current)) {
+            delta.put(field, current);
+        }
+    }
+
+    static long version(TrackingResponse response) {
+        LocalDateTime lastUpdate = response.getLastUpdate();
+        return lastUpdate != null ? lastUpdate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    private Message toMessage(TrackingResponse response) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        return messageConverter.toMessage(response, properties);
+    }
+
+    private void remove(Subscription subscription) {
+        Set<Subscription> subscribers = subscriptions.get(subscription.orderId);
+        if (subscribers != null && subscribers.remove(subscription)) {
+            subscriberCount.decrementAndGet();
+            if (subscribers.isEmpty()) {
+                subscriptions.remove(subscription.orderId, subscribers);
+            }
+        }
+    }
+
+    private class Subscription {
+        private final Long orderId;
+        private final SseEmitter emitter;
+
+        // Só a escrita em andamento (uma por vez, no pool) lê e altera estes três
+        private long lastVersion;
+        private boolean reconnectSent;
+        private TrackingResponse lastSent;
+
+        // Protegidos pelo monitor: o que ainda falta escrever e se já há escrita agendada
+        private TrackingResponse next;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private boolean retrying;
+        private boolean closed;
+
+        // Última escrita (ou início sorteado dentro do intervalo, no primeiro heartbeat)
+        private volatile long lastWriteNanos;
+
+        Subscription(Long orderId, SseEmitter emitter, long lastVersion) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+            this.lastVersion = lastVersion;
+            this.lastWriteNanos = System.nanoTime()
+                    - (heartbeatNanos > 0 ? ThreadLocalRandom.current().nextLong(heartbeatNanos) : 0);
+        }
+
+        // Snapshot e mudanças chegam de threads diferentes: fica só a versão mais nova
+        void send(TrackingResponse response) {
+            synchronized (this) {
+                if (next == null || version(response) > version(next)) {
+                    next = response;
+                }
+            }
+            schedule();
+        }
+
+        void heartbeatIfIdle(long now) {
+            if (now - lastWriteNanos < heartbeatNanos) {
+                return;
+            }
+            synchronized (this) {
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        void retry() {
+            synchronized (this) {
+                retrying = false;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled || closed) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                boolean enqueue;
+                synchronized (this) {
+                    scheduled = false;
+                    enqueue = !retrying;
+                    retrying = true;
+                }
+                if (enqueue) {
+                    retry.add(this);
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                TrackingResponse response;
+                boolean heartbeat;
+                synchronized (this) {
+                    response = next;
+                    heartbeat = heartbeatDue;
+                    next = null;
+                    heartbeatDue = false;
+                    if (closed || (response == null && !heartbeat)) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                // Um evento já mantém a conexão viva: o heartbeat só vai sozinho
+                boolean ok = response != null ? writeResponse(response) : write(SseEmitter.event().comment("heartbeat"));
+                if (!ok) {
+                    synchronized (this) {
+                        closed = true;
+                        scheduled = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private boolean writeResponse(TrackingResponse response) {
+            long version = version(response);
+            if (version <= lastVersion) {
+                return true;
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().id(Long.toString(version));
+            if (lastSent == null) {
+                event.name(EVENT_NAME).data(response);
+            } else {
+                event.name(DELTA_EVENT_NAME).data(delta(lastSent, response));
+            }
+            if (!reconnectSent) {
+                event.reconnectTime(reconnectMillis);
+                reconnectSent = true;
+            }
+            if (!write(event)) {
+                return false;
+            }
+            lastVersion = version;
+            lastSent = response;
+            deliveredCounter.increment();
+            return true;
+        }
+
+        private boolean write(SseEmitter.SseEventBuilder event) {
+            long start = System.nanoTime();
+            try {
+                emitter.send(event);
+                lastWriteNanos = System.nanoTime();
+                if (lastWriteNanos - start > slowWriteNanos) {
+                    // Escrita bloqueante: um cliente que não lê prenderia uma thread do pool a cada evento
+                    slowClosedCounter.increment();
+                    remove(this);
+                    emitter.complete();
+                    return false;
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou emitter já encerrado
+                remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.logistics.tracking.util;
+
+/**
+ * Retângulo lat/lon que contém um círculo de raio {@code radiusKm}.
+ * Serve de pré-filtro barato (atendido por índice B-tree) antes do cálculo exato da distância.
+ */
+public record BoundingBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    public static BoundingBox around(double latitude, double longitude, double radiusKm) {
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        // Perto dos polos a longitude degenera; limita o cosseno para não dividir por zero
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double deltaLon = radiusKm / (KM_PER_DEGREE * cosLat);
+
+        // Não trata a virada do antimeridiano (±180°): a caixa é apenas cortada nos limites
+        return new BoundingBox(
+                Math.max(latitude - deltaLat, -90),
+                Math.min(latitude + deltaLat, 90),
+                Math.max(longitude - deltaLon, -180),
+                Math.min(longitude + deltaLon, 180));
+    }
+}
@@ -0,0 +1,35 @@
+package com.logistics.tracking.util;
+
+import com.logistics.tracking.model.Location;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posição de paginação do histórico (timestamp, id) do último item entregue.
+ * Vai ao cliente como texto opaco em Base64 URL-safe.
+ */
+public record HistoryCursor(LocalDateTime timestamp, Long id) {
+
+    public static HistoryCursor of(Location location) {
+        return new HistoryCursor(location.getTimestamp(), location.getId());
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new HistoryCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+}
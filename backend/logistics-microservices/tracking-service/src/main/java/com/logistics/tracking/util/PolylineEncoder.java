@@ -0,0 +1,82 @@
+package com.logistics.tracking.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoded polyline do Google: cada valor vira a diferença para o anterior, em inteiros
+ * com sinal (zigzag) escritos em blocos de 5 bits como caracteres ASCII imprimíveis.
+ * Usado tanto para coordenadas (precisão 5 ou 6) quanto para sequências de timestamps.
+ */
+public final class PolylineEncoder {
+
+    private PolylineEncoder() {}
+
+    public static String encodeCoordinates(double[] latitudes, double[] longitudes, int precision) {
+        double factor = Math.pow(10, precision);
+        StringBuilder encoded = new StringBuilder(latitudes.length * 8);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            long lat = Math.round(latitudes[i] * factor);
+            long lon = Math.round(longitudes[i] * factor);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lon - previousLon, encoded);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return encoded.toString();
+    }
+
+    public static String encodeDeltas(long[] values) {
+        StringBuilder encoded = new StringBuilder(values.length * 2);
+        long previous = 0;
+        for (long value : values) {
+            encodeValue(value - previous, encoded);
+            previous = value;
+        }
+        return encoded.toString();
+    }
+
+    /** Inverso de {@link #encodeCoordinates}: retorna pares [latitude, longitude]. */
+    public static List<double[]> decodeCoordinates(String encoded, int precision) {
+        double factor = Math.pow(10, precision);
+        long[] values = decodeValues(encoded);
+        List<double[]> points = new ArrayList<>(values.length / 2);
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            points.add(new double[]{values[i] / factor, values[i + 1] / factor});
+        }
+        return points;
+    }
+
+    // Os valores de coordenadas vêm intercalados (lat, lon); cada um acumula sobre o de mesmo tipo
+    private static long[] decodeValues(String encoded) {
+        List<Long> deltas = new ArrayList<>();
+        int index = 0;
+        while (index < encoded.length()) {
+            long result = 0;
+            int shift = 0;
+            int chunk;
+            do {
+                chunk = encoded.charAt(index++) - 63;
+                result |= (long) (chunk & 0x1f) << shift;
+                shift += 5;
+            } while (chunk >= 0x20);
+            deltas.add((result & 1) != 0 ? ~(result >> 1) : result >> 1);
+        }
+        long[] values = new long[deltas.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = deltas.get(i) + (i >= 2 ? values[i - 2] : 0);
+        }
+        return values;
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        long zigzag = value < 0 ? ~(value << 1) : value << 1;
+        while (zigzag >= 0x20) {
+            out.append((char) ((0x20 | (zigzag & 0x1f)) + 63));
+            zigzag >>= 5;
+        }
+        out.append((char) (zigzag + 63));
+    }
+}
@@ -0,0 +1,85 @@
+package com.logistics.tracking.util;
+
+import com.logistics.tracking.model.Location;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Simplificação de trajetórias por Douglas-Peucker: remove pontos que estão a menos de
+ * {@code toleranceMeters} da reta entre os pontos mantidos. O primeiro e o último ponto
+ * sempre ficam, e nenhum ponto removido se afasta mais que a tolerância da rota resultante.
+ */
+public final class TrajectorySimplifier {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private TrajectorySimplifier() {}
+
+    public static List<Location> simplify(List<Location> points, double toleranceMeters) {
+        if (points.size() < 3 || toleranceMeters <= 0) {
+            return points;
+        }
+
+        // Projeção equirretangular local: suficiente para distâncias de poucos km entre pontos
+        double cosLat = Math.cos(Math.toRadians(points.get(0).getLatitude()));
+        int n = points.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = Math.toRadians(points.get(i).getLongitude()) * cosLat * EARTH_RADIUS_METERS;
+            y[i] = Math.toRadians(points.get(i).getLatitude()) * EARTH_RADIUS_METERS;
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        // Iterativo (pilha explícita) para não estourar a pilha com históricos longos
+        Deque<int[]> segments = new ArrayDeque<>();
+        segments.push(new int[]{0, n - 1});
+        while (!segments.isEmpty()) {
+            int[] segment = segments.pop();
+            int start = segment[0];
+            int end = segment[1];
+
+            double maxDistance = 0;
+            int farthest = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = distanceToSegment(x[i], y[i], x[start], y[start], x[end], y[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest != -1 && maxDistance > toleranceMeters) {
+                keep[farthest] = true;
+                segments.push(new int[]{start, farthest});
+                segments.push(new int[]{farthest, end});
+            }
+        }
+
+        List<Location> simplified = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(points.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(px - ax, py - ay);
+        }
+        double t = ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
@@ -0,0 +1,15 @@
+-- O ddl-auto cria a check constraint de status com os valores do enum na criação da
+-- tabela e não a atualiza depois. Recria com os valores atuais (inclui CANCELLED), mas só
+-- quando a constraint existente ainda não aceita CANCELLED: recriar trava a tabela
+-- (ACCESS EXCLUSIVE) e revalida todas as linhas, o que não deve acontecer a cada inicialização.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint
+               WHERE conname = 'delivery_tracking_status_check'
+               AND conrelid = 'delivery_tracking'::regclass
+               AND pg_get_constraintdef(oid) NOT LIKE '%CANCELLED%') THEN
+        ALTER TABLE delivery_tracking DROP CONSTRAINT delivery_tracking_status_check;
+        ALTER TABLE delivery_tracking ADD CONSTRAINT delivery_tracking_status_check
+            CHECK (status IN ('WAITING_PICKUP', 'IN_TRANSIT', 'NEAR_DESTINATION', 'DELIVERED', 'DELAYED', 'CANCELLED'));
+    END IF;
+END $$;
@@ -0,0 +1,18 @@
+-- Carga inicial de driver_last_position / order_last_position a partir do histórico.
+-- Só roda com a tabela vazia (primeira subida com as tabelas novas); depois o upsert
+-- de TrackingService mantém as duas em dia.
+INSERT INTO driver_last_position (driver_id, order_id, location_id, latitude, longitude,
+    speed, bearing, address, timestamp_location, updated_at)
+SELECT DISTINCT ON (l.driver_id) l.driver_id, l.order_id, l.id, l.latitude, l.longitude,
+    l.speed, l.bearing, l.address, l.timestamp_location, now()
+FROM locations l
+WHERE NOT EXISTS (SELECT 1 FROM driver_last_position)
+ORDER BY l.driver_id, l.timestamp_location DESC;
+
+INSERT INTO order_last_position (order_id, driver_id, location_id, latitude, longitude,
+    speed, bearing, address, timestamp_location, updated_at)
+SELECT DISTINCT ON (l.order_id) l.order_id, l.driver_id, l.id, l.latitude, l.longitude,
+    l.speed, l.bearing, l.address, l.timestamp_location, now()
+FROM locations l
+WHERE NOT EXISTS (SELECT 1 FROM order_last_position)
+ORDER BY l.order_id, l.timestamp_location DESC;
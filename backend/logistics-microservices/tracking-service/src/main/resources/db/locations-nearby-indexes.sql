@@ -0,0 +1,13 @@
+-- Índices usados pelas consultas de proximidade (ddl-auto: update não cria índices)
+
+-- Pré-filtro por caixa lat/lon em /nearby (modo bbox), sobre a última posição de cada motorista
+CREATE INDEX IF NOT EXISTS idx_driver_last_position_lat_lon
+    ON driver_last_position (latitude, longitude);
+
+-- Última posição por motorista (DISTINCT ON driver_id) e histórico do motorista
+CREATE INDEX IF NOT EXISTS idx_locations_driver_time
+    ON locations (driver_id, timestamp_location DESC);
+
+-- Histórico do pedido e carga inicial de order_last_position
+CREATE INDEX IF NOT EXISTS idx_locations_order_time
+    ON locations (order_id, timestamp_location DESC);
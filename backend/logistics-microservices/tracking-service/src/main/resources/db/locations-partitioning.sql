@@ -0,0 +1,36 @@
+-- Converte locations em tabela particionada por dia (timestamp_location).
+-- Na primeira subida o Hibernate cria a tabela comum; este script a substitui pela
+-- particionada e copia o histórico. Nas subidas seguintes não faz nada.
+-- Partições futuras e retenção ficam com o LocationPartitionManager.
+DO $$
+DECLARE
+    partition_day date;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class c
+               JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE c.relname = 'locations' AND n.nspname = current_schema() AND c.relkind = 'p') THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE locations RENAME TO locations_legacy;
+    ALTER TABLE locations_legacy RENAME CONSTRAINT locations_pkey TO locations_legacy_pkey;
+
+    -- A chave primária de uma tabela particionada precisa incluir a coluna de partição
+    CREATE TABLE locations (LIKE locations_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp_location);
+    ALTER TABLE locations ADD CONSTRAINT locations_pkey PRIMARY KEY (id, timestamp_location);
+    -- Recebe pontos fora da janela de partições (ex.: relógio do aparelho errado)
+    CREATE TABLE locations_default PARTITION OF locations DEFAULT;
+
+    UPDATE locations_legacy SET timestamp_location = COALESCE(created_at, now())
+     WHERE timestamp_location IS NULL;
+
+    SELECT COALESCE(MIN(timestamp_location)::date, CURRENT_DATE) INTO partition_day FROM locations_legacy;
+    WHILE partition_day <= CURRENT_DATE + 7 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF locations FOR VALUES FROM (%L) TO (%L)',
+                       'locations_p' || to_char(partition_day, 'YYYYMMDD'), partition_day, partition_day + 1);
+        partition_day := partition_day + 1;
+    END LOOP;
+
+    INSERT INTO locations SELECT * FROM locations_legacy;
+    DROP TABLE locations_legacy;
+END $$;
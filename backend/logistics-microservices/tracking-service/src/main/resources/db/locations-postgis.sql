@@ -0,0 +1,15 @@
+-- Índice GiST para /nearby no modo postgis, sobre a última posição de cada motorista.
+-- Só é aplicado se a extensão estiver disponível no servidor; caso contrário o script não faz nada.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_available_extensions WHERE name = 'postgis') THEN
+        RAISE NOTICE 'PostGIS indisponível: modo postgis de /nearby não poderá ser usado';
+        RETURN;
+    END IF;
+
+    CREATE EXTENSION IF NOT EXISTS postgis;
+
+    -- Índice de expressão: a consulta usa a mesma expressão, sem coluna extra nem trigger
+    CREATE INDEX IF NOT EXISTS idx_driver_last_position_geog ON driver_last_position
+        USING GIST ((ST_SetSRID(ST_MakePoint(longitude, latitude), 4326)::geography));
+END $$;
@@ -0,0 +1,7 @@
+-- Location passou de IDENTITY para a sequência locations_seq (alocação em blocos de 50).
+-- Garante que a sequência nunca entregue ids já usados pela antiga coluna IDENTITY.
+-- Idempotente: roda a cada inicialização e nunca faz a sequência voltar.
+SELECT setval('locations_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) + 50 FROM locations),
+    (SELECT last_value FROM locations_seq)
+));
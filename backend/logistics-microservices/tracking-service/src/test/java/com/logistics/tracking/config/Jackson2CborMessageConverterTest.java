@@ -0,0 +1,43 @@
+package com.logistics.tracking.config;
+
+import com.logistics.tracking.event.OrderDriverAssignedEvent;
+import com.logistics.tracking.event.LocationUpdatedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Jackson2CborMessageConverterTest {
+
+    private final MessageConverter converter = new RabbitConfig().messageConverter();
+
+    @Test
+    public void testRoundTripsUsingTypeHeader() {
+        LocationUpdatedEvent event = new LocationUpdatedEvent(1, 5L, 10L, 20L, -19.9, -43.9, 30.0, 90.0, 1000L);
+
+        Message message = converter.toMessage(event, cborProperties());
+
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(Jackson2CborMessageConverter.CONTENT_TYPE);
+        assertThat(converter.fromMessage(message)).isEqualTo(event);
+    }
+
+    @Test
+    public void testUsesListenerTypeWhenHeaderPointsToAnotherService() {
+        OrderDriverAssignedEvent event = new OrderDriverAssignedEvent(1, 10L, 20L,
+                "Origem", -19.9, -43.9, "Destino", -19.8, -43.8, 1000L);
+        Message message = converter.toMessage(event, cborProperties());
+        // Como chega do orders-service: __TypeId__ com uma classe que não existe aqui
+        message.getMessageProperties().setHeader("__TypeId__", "com.logistics.orders.event.OrderDriverAssignedEvent");
+        message.getMessageProperties().setInferredArgumentType(OrderDriverAssignedEvent.class);
+
+        assertThat(converter.fromMessage(message)).isEqualTo(event);
+    }
+
+    private static MessageProperties cborProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(Jackson2CborMessageConverter.CONTENT_TYPE);
+        return properties;
+    }
+}
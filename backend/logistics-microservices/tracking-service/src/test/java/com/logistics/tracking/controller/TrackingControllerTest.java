@@ -31,6 +31,23 @@ public class TrackingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void testUpdateLocationsBatchEmpty() throws Exception {
+        mockMvc.perform(post("/api/tracking/locations/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testUpdateLocationsBatchInvalidItem() throws Exception {
+        LocationUpdateRequest request = new LocationUpdateRequest();
+        mockMvc.perform(post("/api/tracking/locations/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(java.util.List.of(request))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetOrderTrackingNotFound() throws Exception {
         mockMvc.perform(get("/api/tracking/order/999999"))
@@ -43,6 +60,20 @@ public class TrackingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testGetLocationHistoryPageInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/tracking/order/1/history")
+                .param("limit", "10")
+                .param("cursor", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetLocationHistoryPageInvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/tracking/order/1/history").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetDriverLocationHistory() throws Exception {
         mockMvc.perform(get("/api/tracking/driver/1/history"))
@@ -69,6 +100,31 @@ public class TrackingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testGetNearbyDeliveriesRadiusTooLarge() throws Exception {
+        mockMvc.perform(get("/api/tracking/nearby")
+                .param("latitude", "0")
+                .param("longitude", "0")
+                .param("radiusKm", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testHistoryPageNotSupportedAsNdjson() throws Exception {
+        mockMvc.perform(get("/api/tracking/order/1/history")
+                .param("limit", "10")
+                .accept("application/x-ndjson"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testHistoryPageNotSupportedAsPolyline() throws Exception {
+        mockMvc.perform(get("/api/tracking/driver/1/history")
+                .param("limit", "10")
+                .accept("application/vnd.logistics.polyline+json"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testCreateTrackingBadRequest() throws Exception {
         mockMvc.perform(post("/api/tracking/create"))
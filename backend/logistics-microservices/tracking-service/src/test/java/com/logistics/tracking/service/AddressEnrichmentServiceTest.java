@@ -0,0 +1,94 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.Location;
+import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import com.logistics.tracking.repository.DriverLastPositionRepository;
+import com.logistics.tracking.repository.LocationRepository;
+import com.logistics.tracking.repository.OrderLastPositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AddressEnrichmentServiceTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private final GeoService geoService = mock(GeoService.class);
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final DeliveryTrackingRepository deliveryTrackingRepository = mock(DeliveryTrackingRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testDropsLocationWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(geoService.reverseGeocode(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "Rua A";
+        });
+        // Um worker ocupado e uma posição na fila
+        AddressEnrichmentService service = service(1, 1);
+
+        service.enqueue(location(1L, -19.9208));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        service.enqueue(location(2L, -19.9210));
+        service.enqueue(location(3L, -19.9212));
+
+        assertThat(meterRegistry.get("tracking.enrichment.dropped").counter().count()).isEqualTo(1);
+        release.countDown();
+        service.shutdown();
+
+        verify(locationRepository).updateAddress(1L, TIMESTAMP, "Rua A");
+        verify(locationRepository).updateAddress(2L, TIMESTAMP, "Rua A");
+        verify(locationRepository, never()).updateAddress(eq(3L), any(), any());
+    }
+
+    @Test
+    public void testTrackingAddressGuardedByEnqueuedPosition() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(geoService.reverseGeocode(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "Rua A";
+        });
+        AddressEnrichmentService service = service(1, 10);
+
+        Location location = location(1L, -19.9208);
+        service.enqueue(location);
+        // A mesma instância muda depois de enfileirada: o endereço resolvido é o da posição enfileirada
+        location.setLatitude(-19.5000);
+        release.countDown();
+        service.shutdown();
+
+        // O UPDATE só casa se a posição atual do tracking ainda for esta; se o motorista já
+        // andou, o endereço antigo não sobrescreve a posição nova
+        verify(geoService).reverseGeocode(-19.9208, -43.9378);
+        verify(deliveryTrackingRepository).updateCurrentAddress(100L, -19.9208, -43.9378, "Rua A");
+        verify(deliveryTrackingRepository, never()).updateCurrentAddress(eq(100L), eq(-19.5000), anyDouble(), any());
+    }
+
+    private AddressEnrichmentService service(int workers, int queueCapacity) {
+        return new AddressEnrichmentService(geoService, locationRepository, deliveryTrackingRepository,
+                mock(DriverLastPositionRepository.class), mock(OrderLastPositionRepository.class),
+                meterRegistry, workers, queueCapacity);
+    }
+
+    private static Location location(Long id, double latitude) {
+        Location location = new Location(100L, 10L, latitude, -43.9378);
+        location.setId(id);
+        location.setTimestamp(TIMESTAMP);
+        return location;
+    }
+}
@@ -0,0 +1,89 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.Location;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeadBandFilterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private DeadBandFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        GeoService geoService = new GeoService(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), 7);
+        filter = new DeadBandFilter(geoService, new SimpleMeterRegistry(), true, 20, Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void testSkipsFixOnPredictedPath() {
+        // 36 km/h para leste = 10 m/s; após 10 s a previsão é ~100 m a leste
+        assertThat(accept(fix(-43.9378, 0, 36.0, 90.0))).isTrue();
+        assertThat(accept(fix(-43.93685, 10, 36.0, 90.0))).isFalse();
+    }
+
+    @Test
+    public void testPersistsFixThatLeavesPredictedPath() {
+        assertThat(accept(fix(-43.9378, 0, 36.0, 90.0))).isTrue();
+        // Ficou parado: ~100 m atrás da posição prevista
+        assertThat(accept(fix(-43.9378, 10, 0.0, 90.0))).isTrue();
+    }
+
+    @Test
+    public void testPersistsAfterMaxInterval() {
+        assertThat(accept(fix(-43.9378, 0, 0.0, 0.0))).isTrue();
+        assertThat(accept(fix(-43.9378, 10, 0.0, 0.0))).isFalse();
+        assertThat(accept(fix(-43.9378, 30, 0.0, 0.0))).isTrue();
+    }
+
+    @Test
+    public void testReferenceOnlyAdvancesAfterCommit() {
+        Location first = fix(-43.9378, 0, 0.0, 0.0);
+        assertThat(filter.shouldPersist(first)).isTrue();
+        // Primeiro ponto não confirmado (transação desfeita): ainda não há referência
+        assertThat(filter.shouldPersist(fix(-43.9378, 10, 0.0, 0.0))).isTrue();
+    }
+
+    @Test
+    public void testOutOfOrderFixIsPersistedButDoesNotBecomeReference() {
+        assertThat(accept(fix(-43.9378, 20, 0.0, 0.0))).isTrue();
+        // Mais antigo que a referência: vai para o histórico...
+        assertThat(accept(fix(-43.9300, 5, 0.0, 0.0))).isTrue();
+        // ...mas a previsão continua a partir do ponto de 20 s
+        assertThat(accept(fix(-43.9378, 30, 0.0, 0.0))).isFalse();
+    }
+
+    @Test
+    public void testBatchUsesPointsAcceptedEarlierInTheSameBatch() {
+        Map<Long, Location> batchReferences = new HashMap<>();
+        assertThat(filter.shouldPersist(fix(-43.9378, 0, 0.0, 0.0), batchReferences)).isTrue();
+        assertThat(filter.shouldPersist(fix(-43.9378, 10, 0.0, 0.0), batchReferences)).isFalse();
+    }
+
+    // Simula o fluxo do TrackingService: decide e, se gravou, confirma depois do commit
+    private boolean accept(Location location) {
+        boolean persist = filter.shouldPersist(location);
+        if (persist) {
+            filter.onPersisted(List.of(location));
+        }
+        return persist;
+    }
+
+    private Location fix(double longitude, int seconds, double speed, double bearing) {
+        Location location = new Location(1L, 7L, -19.9208, longitude);
+        location.setTimestamp(START.plusSeconds(seconds));
+        location.setSpeed(speed);
+        location.setBearing(bearing);
+        return location;
+    }
+}
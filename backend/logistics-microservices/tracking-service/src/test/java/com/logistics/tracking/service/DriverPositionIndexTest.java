@@ -0,0 +1,81 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.model.Location;
+import com.logistics.tracking.repository.DriverLastPositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class DriverPositionIndexTest {
+
+    private DriverPositionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        GeoService geoService = new GeoService(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), 7);
+        index = new DriverPositionIndex(geoService, mock(DriverLastPositionRepository.class), 0.05, Duration.ofHours(24));
+    }
+
+    @Test
+    public void testFindWithinRadiusOrderedByDistance() {
+        index.update(new Location(1L, 10L, -19.9208, -43.9378));
+        index.update(new Location(2L, 20L, -19.9300, -43.9378));  // ~1 km ao sul
+        index.update(new Location(3L, 30L, -19.5000, -43.9378));  // ~47 km
+
+        List<Location> result = index.findWithinRadius(-19.9208, -43.9378, 5.0);
+
+        assertThat(result).extracting(Location::getDriverId).containsExactly(10L, 20L);
+    }
+
+    @Test
+    public void testKeepsOnlyLatestPositionPerDriver() {
+        index.update(new Location(1L, 10L, -19.9208, -43.9378));
+        index.update(new Location(1L, 10L, -19.5000, -43.9378));
+
+        assertThat(index.findWithinRadius(-19.9208, -43.9378, 5.0)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOutOfOrderFixDoesNotReplaceNewer() {
+        Location newer = new Location(1L, 10L, -19.9208, -43.9378);
+        Location older = new Location(1L, 10L, -19.5000, -43.9378);
+        older.setTimestamp(LocalDateTime.now().minusMinutes(5));
+
+        index.update(newer);
+        index.update(older);
+
+        assertThat(index.findWithinRadius(-19.9208, -43.9378, 1.0)).containsExactly(newer);
+    }
+
+    @Test
+    public void testEvictsDriversOlderThanMaxAge() {
+        Location stale = new Location(1L, 10L, -19.9208, -43.9378);
+        stale.setTimestamp(LocalDateTime.now().minusHours(25));
+        index.update(stale);
+        index.update(new Location(2L, 20L, -19.9208, -43.9378));
+
+        assertThat(index.evictStale()).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.findWithinRadius(-19.9208, -43.9378, 1.0))
+                .extracting(Location::getDriverId).containsExactly(20L);
+    }
+
+    @Test
+    public void testFindNearestExpandsUntilK() {
+        index.update(new Location(1L, 10L, -19.9208, -43.9378));
+        index.update(new Location(2L, 20L, -20.0000, -43.9378));  // ~9 km
+        index.update(new Location(3L, 30L, -20.3000, -43.9378));  // ~42 km
+
+        List<Location> result = index.findNearest(-19.9208, -43.9378, 2, 100.0);
+
+        assertThat(result).extracting(Location::getDriverId).containsExactly(10L, 20L);
+    }
+}
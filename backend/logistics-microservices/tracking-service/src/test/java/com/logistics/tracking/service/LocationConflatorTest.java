@@ -0,0 +1,68 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.event.LocationUpdatedEvent;
+import com.logistics.tracking.model.Location;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class LocationConflatorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 9, 10, 0);
+
+    private final LocationConflator conflator = new LocationConflator(
+            mock(RabbitTemplate.class), mock(MessageConverter.class), new SimpleMeterRegistry(),
+            "application/json", 100);
+
+    @Test
+    public void testKeepsOnlyLatestPositionPerDriver() {
+        conflator.offer(location(1L, 10L, -19.90, 0));
+        conflator.offer(location(2L, 20L, -19.80, 0));
+        conflator.offer(location(1L, 10L, -19.91, 1));
+
+        List<LocationUpdatedEvent> batch = conflator.drain(100);
+
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0).driverId()).isEqualTo(10L);
+        assertThat(batch.get(0).latitude()).isEqualTo(-19.91);
+        assertThat(batch.get(1).driverId()).isEqualTo(20L);
+        assertThat(conflator.drain(100)).isEmpty();
+    }
+
+    @Test
+    public void testLatePingDoesNotReplaceNewerPosition() {
+        conflator.offer(location(1L, 10L, -19.91, 5));
+        conflator.offer(location(1L, 10L, -19.90, 2));
+
+        assertThat(conflator.drain(100)).extracting(LocationUpdatedEvent::latitude).containsExactly(-19.91);
+    }
+
+    @Test
+    public void testBudgetLeavesRemainingDriversForNextFlushInArrivalOrder() {
+        conflator.offer(location(1L, 10L, -19.90, 0));
+        conflator.offer(location(2L, 20L, -19.80, 0));
+        conflator.offer(location(3L, 30L, -19.70, 0));
+
+        assertThat(conflator.drain(2)).extracting(LocationUpdatedEvent::driverId).containsExactly(10L, 20L);
+        // Nova posição de um motorista já publicado entra no fim da fila
+        conflator.offer(location(1L, 10L, -19.92, 1));
+        assertThat(conflator.drain(2)).extracting(LocationUpdatedEvent::driverId).containsExactly(30L, 10L);
+    }
+
+    private static Location location(Long orderId, Long driverId, double latitude, int secondsAfterBase) {
+        Location location = new Location();
+        location.setOrderId(orderId);
+        location.setDriverId(driverId);
+        location.setLatitude(latitude);
+        location.setLongitude(-43.9);
+        location.setTimestamp(BASE.plusSeconds(secondsAfterBase));
+        return location;
+    }
+}
@@ -0,0 +1,135 @@
+package com.logistics.tracking.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LocationPartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 9);
+    private static final Clock CLOCK = Clock.fixed(
+            TODAY.atStartOfDay(ZoneId.systemDefault()).plusHours(12).toInstant(), ZoneId.systemDefault());
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    @Test
+    public void testPartitionNameRoundTrip() {
+        LocalDate day = LocalDate.of(2024, 3, 9);
+
+        assertThat(LocationPartitionManager.partitionName(day)).isEqualTo("locations_p20240309");
+        assertThat(LocationPartitionManager.partitionDay("locations_p20240309")).isEqualTo(day);
+    }
+
+    @Test
+    public void testIgnoresPartitionsOutsideNamingScheme() {
+        assertThat(LocationPartitionManager.partitionDay("locations_default")).isNull();
+        assertThat(LocationPartitionManager.partitionDay("locations_p2024")).isNull();
+        assertThat(LocationPartitionManager.partitionDay("outra_tabela")).isNull();
+    }
+
+    @Test
+    public void testCreatesTodayPlusDaysAhead() {
+        LocalDate today = LocalDate.of(2024, 3, 9);
+
+        assertThat(LocationPartitionManager.partitionsToCreate(today, 2))
+                .containsExactly(today, today.plusDays(1), today.plusDays(2));
+    }
+
+    @Test
+    public void testExpiresOnlyWholeDaysBeforeCutoff() {
+        LocalDate cutoff = LocalDate.of(2024, 3, 9);
+
+        assertThat(LocationPartitionManager.expiredPartitions(List.of(
+                "locations_p20240307", "locations_p20240308", "locations_p20240309",
+                "locations_p20240310", "locations_default", "locations_manual"), cutoff))
+                .containsExactly("locations_p20240307", "locations_p20240308");
+    }
+
+    @Test
+    public void testMaintenanceDropsExpiredAndPurgesDefaultPartition() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        LocalDate cutoff = TODAY.minusDays(30);
+        String expired = LocationPartitionManager.partitionName(cutoff.minusDays(1));
+        String kept = LocationPartitionManager.partitionName(cutoff);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(expired, kept, LocationPartitionManager.DEFAULT_PARTITION));
+
+        manager().maintainPartitions();
+
+        verify(jdbcTemplate, times(8)).execute(startsWith("CREATE TABLE IF NOT EXISTS"));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + expired);
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS " + kept);
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS " + LocationPartitionManager.DEFAULT_PARTITION);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM locations_default"),
+                eq(Timestamp.valueOf(cutoff.atStartOfDay())));
+    }
+
+    @Test
+    public void testSkipsMaintenanceWhenTableIsNotPartitioned() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        manager().maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    public void testMovesDefaultRowsIntoNewPartition() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        String existing = LocationPartitionManager.partitionName(TODAY);
+        String pending = LocationPartitionManager.partitionName(TODAY.plusDays(1));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(existing, LocationPartitionManager.DEFAULT_PARTITION));
+        Timestamp from = Timestamp.valueOf(TODAY.plusDays(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(TODAY.plusDays(2).atStartOfDay());
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS (SELECT 1 FROM locations_default"),
+                eq(Boolean.class), any(), any()))
+                .thenAnswer(invocation -> from.equals(invocation.getArgument(2)));
+        runTransactionsInline();
+
+        manager().maintainPartitions();
+
+        // A partição de hoje já existe; a de amanhã nasce solta, recebe as linhas e é anexada
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS " + existing));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS " + pending));
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("CREATE TABLE " + pending + " (LIKE locations INCLUDING DEFAULTS)");
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO " + pending), eq(from), eq(to));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM locations_default WHERE timestamp_location >="),
+                eq(from), eq(to));
+        order.verify(jdbcTemplate).execute(startsWith("ALTER TABLE locations ATTACH PARTITION " + pending));
+        verify(jdbcTemplate, times(6)).execute(startsWith("CREATE TABLE IF NOT EXISTS"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private LocationPartitionManager manager() {
+        return new LocationPartitionManager(jdbcTemplate, transactionTemplate, 7, 30, CLOCK);
+    }
+}
@@ -0,0 +1,101 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.event.OrderCancelledEvent;
+import com.logistics.tracking.event.OrderDriverAssignedEvent;
+import com.logistics.tracking.event.OrderRouteCalculatedEvent;
+import com.logistics.tracking.model.DeliveryTracking;
+import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderEventListenerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final GeoService geoService = mock(GeoService.class);
+    private final DeliveryTrackingRepository repository = mock(DeliveryTrackingRepository.class);
+    private final TrackingStreamService streamService = mock(TrackingStreamService.class);
+    private final OrderEventListener listener = new OrderEventListener(
+            jdbcTemplate, geoService, repository, streamService, new SimpleMeterRegistry());
+
+    @Test
+    public void testLatestPerOrderKeepsLastEventOfEachOrderSortedByOrderId() {
+        OrderCancelledEvent first = new OrderCancelledEvent(1, 10L, 5L, 1000L);
+        OrderCancelledEvent other = new OrderCancelledEvent(1, 11L, 6L, 1000L);
+        OrderCancelledEvent last = new OrderCancelledEvent(1, 10L, 7L, 2000L);
+        OrderCancelledEvent withoutOrder = new OrderCancelledEvent(1, null, 8L, 2000L);
+
+        assertThat(OrderEventListener.latestPerOrder(
+                List.of(first, other, last, withoutOrder), OrderCancelledEvent::orderId))
+                .containsExactly(last, other);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDriverAssignedUpsertsOneRowPerOrderWithDistance() {
+        when(geoService.calculateDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(12.5);
+
+        listener.onDriverAssigned(List.of(
+                new OrderDriverAssignedEvent(1, 10L, 5L, "Origem", -19.9, -43.9, "Destino", -19.8, -43.8, 1000L),
+                new OrderDriverAssignedEvent(1, 10L, 6L, "Origem", -19.9, -43.9, "Destino", -19.8, -43.8, 2000L),
+                new OrderDriverAssignedEvent(1, 11L, 7L, "Origem", null, null, "Destino", null, null, 2000L)));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        assertThat(rows.getValue()).hasSize(2);
+        assertThat(rows.getValue().get(0)).startsWith(10L, 6L, new Timestamp(2000L));
+        assertThat(rows.getValue().get(0)[9]).isEqualTo(12.5);
+        assertThat(rows.getValue().get(1)).startsWith(11L, 7L);
+        assertThat(rows.getValue().get(1)[9]).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRouteCalculatedFillsCoordinatesOfAssignedOrders() {
+        when(geoService.calculateDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(12.5);
+
+        listener.onRouteCalculated(List.of(
+                new OrderRouteCalculatedEvent(1, 10L, 5L, -19.9, -43.9, -19.8, -43.8, 15.0, 20, 2000L),
+                // Ainda sem motorista: nada a completar
+                new OrderRouteCalculatedEvent(1, 11L, null, -19.9, -43.9, -19.8, -43.8, 15.0, 20, 2000L)));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        assertThat(rows.getValue()).hasSize(1);
+        assertThat(rows.getValue().get(0)).startsWith(10L, 5L, -19.9, -43.9, -19.8, -43.8, 12.5, 12.5);
+    }
+
+    @Test
+    public void testCancellationIsPublishedToStream() {
+        DeliveryTracking cancelled = new DeliveryTracking();
+        cancelled.setOrderId(10L);
+        cancelled.setStatus(DeliveryTracking.TrackingStatus.CANCELLED);
+        when(repository.findByOrderIdIn(List.of(10L))).thenReturn(List.of(cancelled));
+
+        listener.onOrderCancelled(List.of(new OrderCancelledEvent(1, 10L, 5L, 1000L)));
+
+        verify(streamService).publish(cancelled);
+    }
+
+    @Test
+    public void testCancelledWithoutDriverIsIgnored() {
+        listener.onOrderCancelled(List.of(new OrderCancelledEvent(1, 10L, null, 1000L)));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+        verify(streamService, never()).publish(any());
+    }
+}
@@ -0,0 +1,26 @@
+package com.logistics.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrackingServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 9, 10, 0);
+    private static final Duration SKEW = Duration.ofSeconds(30);
+
+    @Test
+    public void testTimestampWithinSkewIsKept() {
+        assertThat(TrackingService.clampTimestamp(NOW.minusMinutes(5), NOW, SKEW)).isEqualTo(NOW.minusMinutes(5));
+        assertThat(TrackingService.clampTimestamp(NOW.plusSeconds(30), NOW, SKEW)).isEqualTo(NOW.plusSeconds(30));
+    }
+
+    @Test
+    public void testFutureTimestampIsClampedToNow() {
+        assertThat(TrackingService.clampTimestamp(NOW.plusSeconds(31), NOW, SKEW)).isEqualTo(NOW);
+        assertThat(TrackingService.clampTimestamp(NOW.plusDays(365), NOW, SKEW)).isEqualTo(NOW);
+    }
+}
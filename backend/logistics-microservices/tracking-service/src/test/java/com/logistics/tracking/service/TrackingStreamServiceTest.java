@@ -0,0 +1,145 @@
+package com.logistics.tracking.service;
+
+import com.logistics.tracking.dto.TrackingResponse;
+import com.logistics.tracking.model.DeliveryTracking;
+import com.logistics.tracking.repository.DeliveryTrackingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TrackingStreamServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 9, 10, 0);
+
+    private final DeliveryTrackingRepository repository = mock(DeliveryTrackingRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TrackingStreamService streamService = new TrackingStreamService(
+            repository, mock(RabbitTemplate.class), mock(MessageConverter.class), meterRegistry,
+            "application/json", Duration.ofMinutes(30), Duration.ofSeconds(3), Duration.ofSeconds(15),
+            Duration.ofSeconds(2), Runnable::run);
+
+    @Test
+    public void testSubscribeSendsSnapshotOnlyWhenNewerThanLastEventId() {
+        DeliveryTracking tracking = tracking(BASE);
+        when(repository.findByOrderId(1L)).thenReturn(Optional.of(tracking));
+        long version = TrackingStreamService.version(new TrackingResponse(tracking));
+
+        streamService.subscribe(1L, null);
+        assertThat(delivered()).isEqualTo(1);
+
+        // Reconexão sem mudança desde o último evento: nada é reenviado
+        streamService.subscribe(1L, version);
+        assertThat(delivered()).isEqualTo(1);
+        assertThat(meterRegistry.get("tracking.stream.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    public void testChangesAreDeliveredInVersionOrder() {
+        when(repository.findByOrderId(1L)).thenReturn(Optional.of(tracking(BASE)));
+        streamService.subscribe(1L, null);
+
+        streamService.onTrackingChanged(new TrackingResponse(tracking(BASE.minusSeconds(5))));
+        assertThat(delivered()).isEqualTo(1);
+
+        streamService.onTrackingChanged(new TrackingResponse(tracking(BASE.plusSeconds(5))));
+        assertThat(delivered()).isEqualTo(2);
+
+        // Pedido sem clientes conectados nesta instância
+        DeliveryTracking other = tracking(BASE.plusSeconds(10));
+        other.setOrderId(2L);
+        streamService.onTrackingChanged(new TrackingResponse(other));
+        assertThat(delivered()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFullWriterQueueKeepsLatestChangePending() {
+        boolean[] full = {true};
+        TrackingStreamService service = new TrackingStreamService(
+                repository, mock(RabbitTemplate.class), mock(MessageConverter.class), meterRegistry,
+                "application/json", Duration.ofMinutes(30), Duration.ofSeconds(3), Duration.ofHours(1),
+                Duration.ofSeconds(2), task -> {
+                    if (full[0]) {
+                        throw new RejectedExecutionException();
+                    }
+                    task.run();
+                });
+        when(repository.findByOrderId(1L)).thenReturn(Optional.empty());
+        service.subscribe(1L, null);
+
+        service.onTrackingChanged(new TrackingResponse(tracking(BASE)));
+        service.onTrackingChanged(new TrackingResponse(tracking(BASE.plusSeconds(5))));
+        assertThat(delivered()).isZero();
+        assertThat(meterRegistry.get("tracking.stream.rejected").counter().count()).isEqualTo(2);
+
+        // Com a fila livre, o tick seguinte reagenda e leva a mudança pendente mais nova (e só ela)
+        full[0] = false;
+        service.tick();
+        assertThat(delivered()).isEqualTo(1);
+
+        service.tick();
+        assertThat(delivered()).isEqualTo(1);
+    }
+
+    @Test
+    public void testHeartbeatOnlyForIdleConnections() {
+        when(repository.findByOrderId(1L)).thenReturn(Optional.empty());
+        int[] writes = {0};
+        TrackingStreamService busy = service(Duration.ofHours(1), writes);
+        busy.subscribe(1L, null);
+        busy.tick();
+        assertThat(writes[0]).isZero();
+
+        TrackingStreamService idle = service(Duration.ofNanos(1), writes);
+        idle.subscribe(1L, null);
+        idle.tick();
+        assertThat(writes[0]).isEqualTo(1);
+    }
+
+    @Test
+    public void testDeltaCarriesOnlyChangedFields() {
+        TrackingResponse previous = new TrackingResponse(tracking(BASE));
+        DeliveryTracking moved = tracking(BASE.plusSeconds(5));
+        moved.setCurrentLatitude(-19.8);
+        moved.setCurrentAddress(null);
+
+        Map<String, Object> delta = TrackingStreamService.delta(previous, new TrackingResponse(moved));
+
+        assertThat(delta).containsOnlyKeys("orderId", "currentLatitude", "lastUpdate");
+        assertThat(delta).containsEntry("currentLatitude", -19.8)
+                .containsEntry("lastUpdate", BASE.plusSeconds(5));
+    }
+
+    private TrackingStreamService service(Duration heartbeatInterval, int[] writes) {
+        return new TrackingStreamService(
+                repository, mock(RabbitTemplate.class), mock(MessageConverter.class), new SimpleMeterRegistry(),
+                "application/json", Duration.ofMinutes(30), Duration.ofSeconds(3), heartbeatInterval,
+                Duration.ofSeconds(2), task -> {
+                    writes[0]++;
+                    task.run();
+                });
+    }
+
+    private double delivered() {
+        return meterRegistry.get("tracking.stream.delivered").counter().count();
+    }
+
+    private static DeliveryTracking tracking(LocalDateTime lastUpdate) {
+        DeliveryTracking tracking = new DeliveryTracking();
+        tracking.setOrderId(1L);
+        tracking.setCurrentLatitude(-19.9);
+        tracking.setCurrentLongitude(-43.9);
+        tracking.setLastUpdate(lastUpdate);
+        return tracking;
+    }
+}
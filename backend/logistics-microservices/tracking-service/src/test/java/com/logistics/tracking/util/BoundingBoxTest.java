@@ -0,0 +1,28 @@
+package com.logistics.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class BoundingBoxTest {
+
+    @Test
+    public void testBoxContainsRadius() {
+        BoundingBox box = BoundingBox.around(-19.9208, -43.9378, 5.0);
+
+        // 5 km ~ 0.045° de latitude; em -19.9° a longitude abre um pouco mais
+        assertThat(box.maxLatitude() - (-19.9208)).isCloseTo(0.0449, within(0.001));
+        assertThat(box.maxLongitude() - (-43.9378)).isGreaterThan(box.maxLatitude() - (-19.9208));
+        assertThat(box.minLatitude()).isLessThan(-19.9208);
+        assertThat(box.minLongitude()).isLessThan(-43.9378);
+    }
+
+    @Test
+    public void testBoxIsClampedToValidCoordinates() {
+        BoundingBox box = BoundingBox.around(89.99, 179.99, 50.0);
+
+        assertThat(box.maxLatitude()).isEqualTo(90);
+        assertThat(box.maxLongitude()).isEqualTo(180);
+    }
+}
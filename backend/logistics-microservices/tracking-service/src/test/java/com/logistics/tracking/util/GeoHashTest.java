@@ -0,0 +1,28 @@
+package com.logistics.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GeoHashTest {
+
+    @Test
+    public void testEncodeKnownPoint() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+    }
+
+    @Test
+    public void testNearbyPointsShareCell() {
+        // Dois pings a ~20 m de distância em Belo Horizonte
+        String first = GeoHash.encode(-19.920800, -43.937800, 7);
+        String second = GeoHash.encode(-19.920750, -43.937650, 7);
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    public void testInvalidPrecision() {
+        assertThatThrownBy(() -> GeoHash.encode(0, 0, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.logistics.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HistoryCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2024, 5, 1, 13, 45, 12, 123456000), 987L);
+
+        HistoryCursor decoded = HistoryCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    public void testDecodeRejectsGarbage() {
+        assertThatThrownBy(() -> HistoryCursor.decode("nao-e-um-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
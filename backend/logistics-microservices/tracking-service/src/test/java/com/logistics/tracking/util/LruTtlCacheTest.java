@@ -0,0 +1,43 @@
+package com.logistics.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LruTtlCacheTest {
+
+    @Test
+    public void testHitAndMiss() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("a", "1");
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testExpiredEntryIsMiss() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("a", "1", System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getExpirations()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+}
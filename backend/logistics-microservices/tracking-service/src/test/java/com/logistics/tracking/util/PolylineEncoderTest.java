@@ -0,0 +1,40 @@
+package com.logistics.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class PolylineEncoderTest {
+
+    // Exemplo da documentação do formato
+    private static final double[] LATITUDES = {38.5, 40.7, 43.252};
+    private static final double[] LONGITUDES = {-120.2, -120.95, -126.453};
+
+    @Test
+    public void testEncodeReferenceExample() {
+        assertThat(PolylineEncoder.encodeCoordinates(LATITUDES, LONGITUDES, 5))
+                .isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+    }
+
+    @Test
+    public void testDecodeRoundTrip() {
+        String encoded = PolylineEncoder.encodeCoordinates(LATITUDES, LONGITUDES, 6);
+
+        List<double[]> decoded = PolylineEncoder.decodeCoordinates(encoded, 6);
+
+        assertThat(decoded).hasSize(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(decoded.get(i)[0]).isCloseTo(LATITUDES[i], within(1e-6));
+            assertThat(decoded.get(i)[1]).isCloseTo(LONGITUDES[i], within(1e-6));
+        }
+    }
+
+    @Test
+    public void testSmallTimeDeltasTakeOneCharacterEach() {
+        // Pontos a cada 5 s: cada diferença cabe num único caractere
+        assertThat(PolylineEncoder.encodeDeltas(new long[]{0, 5, 10, 15})).hasSize(4);
+    }
+}
@@ -0,0 +1,45 @@
+package com.logistics.tracking.util;
+
+import com.logistics.tracking.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrajectorySimplifierTest {
+
+    @Test
+    public void testCollinearPointsCollapseToEndpoints() {
+        List<Location> points = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            points.add(new Location(1L, 1L, -19.9208, -43.9378 + i * 0.001));
+        }
+
+        List<Location> simplified = TrajectorySimplifier.simplify(points, 5.0);
+
+        assertThat(simplified).containsExactly(points.get(0), points.get(100));
+    }
+
+    @Test
+    public void testKeepsCornerBeyondTolerance() {
+        Location start = new Location(1L, 1L, -19.9208, -43.9378);
+        Location corner = new Location(1L, 1L, -19.9208, -43.9278);  // ~1 km a leste
+        Location end = new Location(1L, 1L, -19.9108, -43.9278);     // ~1 km ao norte
+
+        List<Location> simplified = TrajectorySimplifier.simplify(List.of(start, corner, end), 50.0);
+
+        assertThat(simplified).containsExactly(start, corner, end);
+    }
+
+    @Test
+    public void testZeroToleranceKeepsEverything() {
+        List<Location> points = List.of(
+                new Location(1L, 1L, -19.9208, -43.9378),
+                new Location(1L, 1L, -19.9208, -43.9377),
+                new Location(1L, 1L, -19.9208, -43.9376));
+
+        assertThat(TrajectorySimplifier.simplify(points, 0)).isEqualTo(points);
+    }
+}